@@ -0,0 +1,100 @@
+package com.aline.usermicroservice.benchmark;
+
+import com.aline.core.dto.request.UserAvatarRequest;
+import com.aline.core.model.user.UserAvatar;
+import com.aline.core.repository.AvatarRepository;
+import com.aline.usermicroservice.service.AvatarService;
+import com.aline.usermicroservice.service.avatar.AvatarImageProcessor;
+import com.aline.usermicroservice.service.avatar.ProcessedAvatar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The base64 data URI codec of {@link AvatarService} by image
+ * size, a full avatar read through the service and the
+ * normalization of an uploaded photo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AvatarBenchmark {
+
+    @Param({"16384", "262144", "1048576"})
+    private int imageSize;
+
+    private AvatarService avatarService;
+    private AvatarImageProcessor imageProcessor;
+    private byte[] image;
+    private String dataUri;
+    private byte[] photo;
+
+    @Setup
+    public void setUp(SeededApplication app) throws IOException {
+        avatarService = app.getBean(AvatarService.class);
+
+        // Random bytes do not compress, like an already encoded PNG.
+        image = new byte[imageSize];
+        new Random(42).nextBytes(image);
+        dataUri = AvatarService.encodeDataUri(image);
+
+        app.getBean(AvatarRepository.class).save(new UserAvatar(1L, image));
+
+        imageProcessor = app.getBean(AvatarImageProcessor.class);
+        photo = photo();
+    }
+
+    // A 1024x768 noisy gradient, about as hard to compress as a photo.
+    private static byte[] photo() throws IOException {
+        Random random = new Random(42);
+        BufferedImage photo = new BufferedImage(1024, 768, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < photo.getHeight(); y++)
+            for (int x = 0; x < photo.getWidth(); x++)
+                photo.setRGB(x, y, ((x / 4) << 16) | ((y / 3) << 8) | random.nextInt(64));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(photo, "jpeg", out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public String encodeDataUri() {
+        return AvatarService.encodeDataUri(image);
+    }
+
+    @Benchmark
+    public byte[] decodeDataUri() {
+        return AvatarService.decodeDataUri(dataUri);
+    }
+
+    /**
+     * Runs once per upload. Independent of the image size parameter.
+     */
+    @Benchmark
+    public ProcessedAvatar process_photo() {
+        return imageProcessor.process(photo);
+    }
+
+    @Benchmark
+    public UserAvatarRequest getAvatar() {
+        return avatarService.getAvatar(1L);
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.aline.usermicroservice.benchmark;
+
+import com.aline.core.dto.response.PaginatedResponse;
+import com.aline.core.dto.response.UserResponse;
+import com.aline.core.model.user.UserRole;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * JSON serialization of user responses with the application's
+ * configured {@link ObjectMapper}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"10", "100", "2000"})
+    private int pageSize;
+
+    private ObjectMapper mapper;
+    private UserResponse userResponse;
+    private PaginatedResponse<UserResponse> page;
+
+    @Setup
+    public void setUp(SeededApplication app) {
+        mapper = app.getBean(ObjectMapper.class);
+        userResponse = userResponse(1);
+        List<UserResponse> content = IntStream.rangeClosed(1, pageSize)
+                .mapToObj(JsonSerializationBenchmark::userResponse)
+                .collect(Collectors.toList());
+        page = new PaginatedResponse<>(content, PageRequest.of(0, pageSize), SeededApplication.ROWS);
+    }
+
+    private static UserResponse userResponse(long id) {
+        return UserResponse.builder()
+                .id(id)
+                .username(SeededApplication.username(id))
+                .firstName("Member" + id)
+                .lastName("Smith")
+                .email("member" + id + "@email.com")
+                .role(UserRole.MEMBER)
+                .enabled(true)
+                .memberId(id)
+                .membershipId(SeededApplication.membershipId(id))
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serialize_userResponse() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(userResponse);
+    }
+
+    @Benchmark
+    public byte[] serialize_paginatedResponse() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(page);
+    }
+
+}
@@ -0,0 +1,230 @@
+package com.aline.usermicroservice.benchmark;
+
+import com.aline.usermicroservice.repository.UserIdRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load test of the user endpoints against the
+ * seeded H2 database (see {@link SeededApplication}).
+ * <br/>
+ * <code>load.connections</code> client threads each hold one keep-alive
+ * connection and send requests back to back for <code>load.duration</code>
+ * seconds after <code>load.warmup</code> seconds of warm up. Requests are an
+ * even mix of <code>GET /users/{id}</code>, <code>GET /users/{id}/profile</code>
+ * and <code>GET /users/current</code> for random seeded users as the admin.
+ * <br/>
+ * Set <code>load.virtual-threads</code> to run the service with
+ * <code>app.server.virtual-threads</code> (Java 21+) and compare both modes.
+ * Throughput, errors and latency percentiles are printed and written as
+ * JSON to <code>load.result</code> (<code>load-result.json</code> by default).
+ * <br/>
+ * Ex. <code>java -Dload.connections=2000 -Dload.virtual-threads=true -cp benchmarks.jar com.aline.usermicroservice.benchmark.LoadTest</code>
+ */
+@Slf4j(topic = "Load Test")
+public class LoadTest {
+
+    private static final int CONNECTIONS = Integer.getInteger("load.connections", 1000);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup", 10);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.duration", 30);
+    private static final boolean VIRTUAL_THREADS = Boolean.getBoolean("load.virtual-threads");
+    private static final String RESULT = System.getProperty("load.result", "load-result.json");
+
+    private static final int TIMEOUT_MILLIS = 30_000;
+
+    private final String baseUrl;
+    private final String authorization;
+    private final long firstUserId;
+    private final long lastUserId;
+
+    private final AtomicLong errors = new AtomicLong();
+    private volatile boolean measuring;
+    private volatile boolean running = true;
+
+    private LoadTest(String baseUrl, String authorization, long firstUserId, long lastUserId) {
+        this.baseUrl = baseUrl;
+        this.authorization = authorization;
+        this.firstUserId = firstUserId;
+        this.lastUserId = lastUserId;
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Keep one pooled connection per client thread instead of the default 5.
+        System.setProperty("http.maxConnections", Integer.toString(CONNECTIONS));
+        System.setProperty("app.server.virtual-threads", Boolean.toString(VIRTUAL_THREADS));
+        System.setProperty("app.rate-limit.enabled", "false");
+
+        SeededApplication app = new SeededApplication();
+        app.start();
+        try {
+            UserIdRepository ids = app.getBean(UserIdRepository.class);
+            long first = ids.findIdByUsername(SeededApplication.username(1)).orElseThrow(IllegalStateException::new);
+            long last = ids.findIdByUsername(SeededApplication.username(SeededApplication.ROWS)).orElseThrow(IllegalStateException::new);
+            String baseUrl = "http://localhost:" + app.getPort();
+
+            new LoadTest(baseUrl, login(baseUrl), first, last).run();
+        } finally {
+            app.stop();
+        }
+    }
+
+    private static String login(String baseUrl) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + "/login").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty(HttpHeaders.CONTENT_TYPE, "application/json");
+        connection.setRequestProperty("X-Forwarded-Proto", "https");
+        try (OutputStream body = connection.getOutputStream()) {
+            body.write(String.format("{\"username\":\"%s\",\"password\":\"%s\"}",
+                    SeededApplication.ADMIN_USERNAME, SeededApplication.PASSWORD).getBytes(StandardCharsets.UTF_8));
+        }
+        String token = connection.getHeaderField(HttpHeaders.AUTHORIZATION);
+        if (connection.getResponseCode() != 200 || token == null)
+            throw new IllegalStateException("Unable to log in as " + SeededApplication.ADMIN_USERNAME +
+                    " (status " + connection.getResponseCode() + ").");
+        return token;
+    }
+
+    private void run() throws InterruptedException, IOException {
+        log.info("Running {} connections against {} ({} threads) for {}s after {}s of warm up...",
+                CONNECTIONS, baseUrl, VIRTUAL_THREADS ? "virtual" : "platform", DURATION_SECONDS, WARMUP_SECONDS);
+
+        List<Client> clients = new ArrayList<>(CONNECTIONS);
+        CountDownLatch done = new CountDownLatch(CONNECTIONS);
+        for (int i = 0; i < CONNECTIONS; i++) {
+            Client client = new Client(done);
+            clients.add(client);
+            Thread thread = new Thread(client, "load-client-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        TimeUnit.SECONDS.sleep(WARMUP_SECONDS);
+        measuring = true;
+        long start = System.nanoTime();
+        TimeUnit.SECONDS.sleep(DURATION_SECONDS);
+        measuring = false;
+        long elapsed = System.nanoTime() - start;
+        running = false;
+        done.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+
+        report(clients, elapsed);
+    }
+
+    private void report(List<Client> clients, long elapsedNanos) throws IOException {
+        int count = clients.stream().mapToInt(client -> client.count).sum();
+        long[] latencies = new long[count];
+        int offset = 0;
+        for (Client client : clients) {
+            System.arraycopy(client.latencies, 0, latencies, offset, client.count);
+            offset += client.count;
+        }
+        Arrays.sort(latencies);
+
+        double seconds = elapsedNanos / 1e9;
+        String result = String.format(
+                "{\"threads\":\"%s\",\"connections\":%d,\"durationSeconds\":%.1f,\"requests\":%d,\"errors\":%d," +
+                        "\"throughput\":%.1f,\"p50Millis\":%.2f,\"p95Millis\":%.2f,\"p99Millis\":%.2f,\"maxMillis\":%.2f}",
+                VIRTUAL_THREADS ? "virtual" : "platform", CONNECTIONS, seconds, count, errors.get(),
+                count / seconds, percentile(latencies, 0.5), percentile(latencies, 0.95),
+                percentile(latencies, 0.99), percentile(latencies, 1));
+
+        log.info("Load test result: {}", result);
+        try (Writer writer = Files.newBufferedWriter(Paths.get(RESULT), StandardCharsets.UTF_8)) {
+            writer.write(result);
+        }
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0)
+            return 0;
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1e6;
+    }
+
+    private String randomPath() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long id = random.nextLong(firstUserId, lastUserId + 1);
+        switch (random.nextInt(3)) {
+            case 0:
+                return "/users/" + id;
+            case 1:
+                return "/users/" + id + "/profile";
+            default:
+                return "/users/current";
+        }
+    }
+
+    private class Client implements Runnable {
+
+        private final CountDownLatch done;
+        private long[] latencies = new long[1024];
+        private int count;
+
+        Client(CountDownLatch done) {
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            byte[] buffer = new byte[8192];
+            try {
+                while (running) {
+                    long start = System.nanoTime();
+                    boolean ok = send(randomPath(), buffer);
+                    long latency = System.nanoTime() - start;
+                    if (!measuring)
+                        continue;
+                    if (!ok)
+                        errors.incrementAndGet();
+                    record(latency);
+                }
+            } finally {
+                done.countDown();
+            }
+        }
+
+        private boolean send(String path, byte[] buffer) {
+            try {
+                HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+                connection.setConnectTimeout(TIMEOUT_MILLIS);
+                connection.setReadTimeout(TIMEOUT_MILLIS);
+                connection.setRequestProperty(HttpHeaders.AUTHORIZATION, authorization);
+                int status = connection.getResponseCode();
+                // The body must be read to the end for the connection to be reused.
+                try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                    if (body != null)
+                        while (body.read(buffer) != -1) ;
+                }
+                return status == 200;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        private void record(long latency) {
+            if (count == latencies.length)
+                latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = latency;
+        }
+
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.aline.usermicroservice.benchmark;
+
+import com.aline.usermicroservice.security.HashedOtp;
+import com.aline.usermicroservice.security.OneTimePasscodeHasher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-verification cost of a one-time passcode stored as a
+ * BCrypt hash (the legacy format) and as a keyed HMAC.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OtpVerificationBenchmark {
+
+    private static final String OTP = "123456";
+    private static final long USER_ID = 1;
+
+    private BCryptPasswordEncoder bcrypt;
+    private String bcryptHash;
+
+    private OneTimePasscodeHasher hmac;
+    private HashedOtp hmacHash;
+
+    @Setup
+    public void setUp() {
+        bcrypt = new BCryptPasswordEncoder();
+        bcryptHash = bcrypt.encode(OTP);
+
+        hmac = new OneTimePasscodeHasher("ThisIsAGreatSecretKey!!!", Duration.ofMinutes(10));
+        hmacHash = hmac.hash(OTP, USER_ID);
+    }
+
+    @Benchmark
+    public boolean bcrypt_verify() {
+        return bcrypt.matches(OTP, bcryptHash);
+    }
+
+    @Benchmark
+    public boolean hmac_verify() {
+        return hmac.matches(OTP, USER_ID, hmacHash);
+    }
+
+    @Benchmark
+    public String bcrypt_create() {
+        return bcrypt.encode(OTP);
+    }
+
+    @Benchmark
+    public String hmac_create() {
+        return hmac.hash(OTP, USER_ID).format();
+    }
+
+}
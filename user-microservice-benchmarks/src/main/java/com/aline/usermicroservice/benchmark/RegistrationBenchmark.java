@@ -0,0 +1,98 @@
+package com.aline.usermicroservice.benchmark;
+
+import com.aline.core.dto.request.AdminUserRegistration;
+import com.aline.core.dto.request.MemberUserRegistration;
+import com.aline.core.dto.response.UserResponse;
+import com.aline.usermicroservice.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link UserService#registerUser} for each registration type,
+ * including the handler dispatch, the lookups, the password hash
+ * and the insert.
+ * <br/>
+ * Each invocation registers a new user so the benchmark runs a fixed
+ * number of single shots. Member users are registered against the
+ * unlinked members of the seed, which bounds the total number of shots.
+ * Registered users are deleted after the trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, batchSize = 500)
+@Measurement(iterations = 5, batchSize = 500)
+@Fork(1)
+public class RegistrationBenchmark {
+
+    private static final String PREFIX = "registered_";
+
+    private SeededApplication app;
+    private UserService userService;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong nextMemberId = new AtomicLong(SeededApplication.ROWS);
+
+    @Setup(Level.Trial)
+    public void setUp(SeededApplication app) {
+        this.app = app;
+        userService = app.getBean(UserService.class);
+        deleteRegisteredUsers();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        deleteRegisteredUsers();
+    }
+
+    // Also removes the users of a run that did not finish.
+    private void deleteRegisteredUsers() {
+        EntityManager entityManager = app.getBean(EntityManager.class);
+        app.transactionTemplate().executeWithoutResult(status -> entityManager
+                .createQuery("DELETE FROM User u WHERE u.username LIKE :prefix")
+                .setParameter("prefix", PREFIX + "%")
+                .executeUpdate());
+    }
+
+    @Benchmark
+    public UserResponse registerUser_admin() {
+        String username = PREFIX + sequence.incrementAndGet();
+        AdminUserRegistration registration = AdminUserRegistration.builder()
+                .username(username)
+                .password(SeededApplication.PASSWORD)
+                .firstName("Admin")
+                .lastName("Boy")
+                .email(username + "@email.com")
+                .phone("(222) 222-2222")
+                .build();
+        return userService.registerUser(registration, null);
+    }
+
+    @Benchmark
+    public UserResponse registerUser_member() {
+        long memberId = nextMemberId.incrementAndGet();
+        if (memberId > SeededApplication.ROWS + SeededApplication.UNLINKED_MEMBERS)
+            throw new IllegalStateException("Ran out of unlinked members. Raise benchmark.unlinked-members.");
+        MemberUserRegistration registration = MemberUserRegistration.builder()
+                .username(PREFIX + sequence.incrementAndGet())
+                .password(SeededApplication.PASSWORD)
+                .membershipId(SeededApplication.membershipId(memberId))
+                .lastFourOfSSN("2222")
+                .build();
+        return userService.registerUser(registration, null);
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.aline.usermicroservice.benchmark;
+
+import com.aline.core.dto.request.ResetPasswordAuthentication;
+import com.aline.core.dto.response.ContactMethod;
+import com.aline.usermicroservice.service.ResetPasswordService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One-time passcode creation and verification through
+ * {@link ResetPasswordService} against the seeded database.
+ * Each thread works on its own member user.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResetPasswordBenchmark {
+
+    private static final AtomicLong NEXT_USER = new AtomicLong();
+
+    private ResetPasswordService resetPasswordService;
+    private ResetPasswordAuthentication authentication;
+    private String otp;
+
+    @Setup
+    public void setUp(SeededApplication app) {
+        resetPasswordService = app.getBean(ResetPasswordService.class);
+        authentication = ResetPasswordAuthentication.builder()
+                .username(SeededApplication.username(NEXT_USER.incrementAndGet()))
+                .contactMethod(ContactMethod.PHONE)
+                .build();
+        createResetPasswordRequest();
+    }
+
+    @Benchmark
+    public String createResetPasswordRequest() {
+        resetPasswordService.createResetPasswordRequest(authentication, (generated, user) -> otp = generated);
+        return otp;
+    }
+
+    @Benchmark
+    public void verifyOtp() {
+        resetPasswordService.verifyOtp(otp, authentication.getUsername());
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.aline.usermicroservice.benchmark;
+
+import com.aline.core.model.Member;
+import com.aline.core.model.user.AdminUser;
+import com.aline.core.model.user.MemberUser;
+import com.aline.usermicroservice.UserMicroserviceApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the user microservice against an H2 database seeded with
+ * <code>benchmark.rows</code> member users (100,000 by default).
+ * <br/>
+ * The database is a file under <code>target/</code> so it is only
+ * seeded by the first fork and reused by the following ones. Delete
+ * it to reseed after the schema changes.
+ * <br/>
+ * Every member user <code>member_{n}</code> is linked to member
+ * <code>n</code> with membership ID <code>1{n}</code> (zero-padded to
+ * 8 digits). Another <code>benchmark.unlinked-members</code> members
+ * have no user so they can be registered.
+ */
+@Slf4j(topic = "Seeded Application")
+@State(Scope.Benchmark)
+public class SeededApplication {
+
+    public static final int ROWS = Integer.getInteger("benchmark.rows", 100_000);
+    public static final int UNLINKED_MEMBERS = Integer.getInteger("benchmark.unlinked-members", 20_000);
+    public static final String PASSWORD = "P@ssword123";
+    public static final String ADMIN_USERNAME = "benchmark_admin";
+
+    private static final int CHUNK_SIZE = 5000;
+
+    private static final String INSERT_APPLICANT = "INSERT INTO applicant (id, first_name, last_name, gender, date_of_birth, email, phone, social_security, drivers_license, address, city, state, zipcode, mailing_address, mailing_city, mailing_state, mailing_zipcode, income) " +
+            "VALUES (?, ?, 'Smith', 'MALE', '1995-06-23', ?, '(222) 222-2222', ?, ?, '321 Main St.', 'Townsville', 'Maine', '12345', 'PO Box 1234', 'Townsville', 'Maine', '12345', 7500000)";
+    private static final String INSERT_MEMBER = "INSERT INTO member (id, branch_id, applicant_id, membership_id) VALUES (?, 1, ?, ?)";
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(UserMicroserviceApplication.class)
+                .profiles("benchmark")
+                .run();
+        seed();
+
+        // Benchmarks call admin-guarded service methods from JMH worker threads.
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                ADMIN_USERNAME, null, AuthorityUtils.createAuthorityList("administrator")));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        SecurityContextHolder.clearContext();
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public int getPort() {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    public TransactionTemplate transactionTemplate() {
+        return context.getBean(TransactionTemplate.class);
+    }
+
+    public static String membershipId(long memberId) {
+        return String.format("1%07d", memberId);
+    }
+
+    public static String username(long memberId) {
+        return "member_" + memberId;
+    }
+
+    private void seed() {
+        JdbcTemplate jdbcTemplate = getBean(JdbcTemplate.class);
+        int members = ROWS + UNLINKED_MEMBERS;
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM member", Integer.class);
+        if (existing != null && existing >= members) {
+            log.info("Database already holds {} members. Skipping seed.", existing);
+            return;
+        }
+
+        log.info("Seeding {} applicants and members...", members);
+        for (int from = 1; from <= members; from += CHUNK_SIZE) {
+            List<Object[]> applicants = new ArrayList<>();
+            List<Object[]> memberRows = new ArrayList<>();
+            for (long id = from; id < from + CHUNK_SIZE && id <= members; id++) {
+                applicants.add(new Object[]{id, "Member" + id, "member" + id + "@email.com",
+                        "222-22-2222", "DL" + id});
+                memberRows.add(new Object[]{id, id, membershipId(id)});
+            }
+            jdbcTemplate.batchUpdate(INSERT_APPLICANT, applicants);
+            jdbcTemplate.batchUpdate(INSERT_MEMBER, memberRows);
+        }
+
+        log.info("Seeding {} member users...", ROWS);
+        String hash = new BCryptPasswordEncoder().encode(PASSWORD);
+        EntityManager entityManager = getBean(EntityManager.class);
+        TransactionTemplate transactionTemplate = transactionTemplate();
+        for (int from = 1; from <= ROWS; from += CHUNK_SIZE) {
+            final int start = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (long id = start; id < start + CHUNK_SIZE && id <= ROWS; id++) {
+                    MemberUser user = MemberUser.builder()
+                            .username(username(id))
+                            .password(hash)
+                            .member(entityManager.getReference(Member.class, id))
+                            .build();
+                    user.setEnabled(true);
+                    entityManager.persist(user);
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            AdminUser admin = AdminUser.builder()
+                    .username(ADMIN_USERNAME)
+                    .password(hash)
+                    .firstName("Admin")
+                    .lastName("Boy")
+                    .email("admin@email.com")
+                    .phone("(222) 222-2222")
+                    .build();
+            admin.setEnabled(true);
+            entityManager.persist(admin);
+        });
+        log.info("Seed complete.");
+    }
+
+}
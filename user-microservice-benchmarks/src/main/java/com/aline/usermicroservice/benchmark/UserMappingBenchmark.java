@@ -0,0 +1,117 @@
+package com.aline.usermicroservice.benchmark;
+
+import com.aline.core.dto.response.UserResponse;
+import com.aline.core.model.Applicant;
+import com.aline.core.model.Member;
+import com.aline.core.model.user.AdminUser;
+import com.aline.core.model.user.MemberUser;
+import com.aline.core.model.user.User;
+import com.aline.core.model.user.UserRole;
+import com.aline.usermicroservice.service.mapping.AdminUserResponseMapper;
+import com.aline.usermicroservice.service.mapping.MemberUserResponseMapper;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the reflective ModelMapper path that
+ * <code>UserService.mapToDto</code> used to take with the
+ * hand-specialized {@link com.aline.usermicroservice.service.mapping.UserResponseMapper}
+ * implementations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMappingBenchmark {
+
+    private ModelMapper modelMapper;
+    private MemberUserResponseMapper memberMapper;
+    private AdminUserResponseMapper adminMapper;
+
+    private MemberUser memberUser;
+    private AdminUser adminUser;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        memberMapper = new MemberUserResponseMapper();
+        adminMapper = new AdminUserResponseMapper();
+
+        Applicant applicant = Applicant.builder()
+                .firstName("John")
+                .lastName("Smith")
+                .email("johnsmith@email.com")
+                .socialSecurity("222-22-2222")
+                .build();
+        Member member = new Member();
+        member.setId(1L);
+        member.setMembershipId("12345678");
+        member.setApplicant(applicant);
+        memberUser = MemberUser.builder()
+                .id(1)
+                .username("member_user")
+                .member(member)
+                .build();
+
+        adminUser = AdminUser.builder()
+                .id(2)
+                .username("admin_user")
+                .firstName("Admin")
+                .lastName("Boy")
+                .email("admin@email.com")
+                .phone("(222) 222-2222")
+                .build();
+    }
+
+    @Benchmark
+    public UserResponse modelMapper_memberUser() {
+        return mapWithModelMapper(memberUser);
+    }
+
+    @Benchmark
+    public UserResponse modelMapper_adminUser() {
+        return mapWithModelMapper(adminUser);
+    }
+
+    @Benchmark
+    public UserResponse specialized_memberUser() {
+        return memberMapper.map(memberUser);
+    }
+
+    @Benchmark
+    public UserResponse specialized_adminUser() {
+        return adminMapper.map(adminUser);
+    }
+
+    // The previous implementation of UserService.mapToDto.
+    private UserResponse mapWithModelMapper(User user) {
+        UserResponse userResponse = modelMapper.map(user, UserResponse.class);
+        userResponse.setRole(user.getUserRole());
+
+        if (user.getUserRole() == UserRole.MEMBER) {
+            Member member = ((MemberUser) user).getMember();
+            Applicant applicant = member.getApplicant();
+            userResponse.setFirstName(applicant.getFirstName());
+            userResponse.setLastName(applicant.getLastName());
+            userResponse.setEmail(applicant.getEmail());
+            userResponse.setMemberId(member.getId());
+            userResponse.setMembershipId(member.getMembershipId());
+        }
+
+        return userResponse;
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.aline.usermicroservice.benchmark;
+
+import com.aline.core.dto.response.PaginatedResponse;
+import com.aline.core.dto.response.UserProfile;
+import com.aline.core.dto.response.UserResponse;
+import com.aline.core.model.user.MemberUser;
+import com.aline.core.model.user.User;
+import com.aline.core.repository.UserRepository;
+import com.aline.usermicroservice.dto.response.CursorPaginatedResponse;
+import com.aline.usermicroservice.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * {@link UserService} mapping and listing against the seeded database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private static final int SAMPLE_SIZE = 1000;
+    private static final int PAGE_SIZE = 50;
+
+    private UserService userService;
+    private List<MemberUser> members;
+    private User admin;
+    private String deepCursor;
+
+    @Setup
+    public void setUp(SeededApplication app) {
+        userService = app.getBean(UserService.class);
+        UserRepository repository = app.getBean(UserRepository.class);
+
+        // Members and applicants are initialized while the
+        // transaction is open so mapping never hits the database.
+        Random random = new Random(42);
+        List<Long> ids = LongStream.generate(() -> 1 + random.nextInt(SeededApplication.ROWS))
+                .limit(SAMPLE_SIZE)
+                .boxed()
+                .collect(Collectors.toList());
+        members = app.transactionTemplate().execute(status -> {
+            List<User> users = repository.findAllById(ids);
+            userService.prefetchMembers(users);
+            return users.stream()
+                    .map(MemberUser.class::cast)
+                    .collect(Collectors.toList());
+        });
+        admin = repository.findByUsername(SeededApplication.ADMIN_USERNAME).orElseThrow(IllegalStateException::new);
+
+        // Cursors are the base64url encoded ID of the last user of the previous page.
+        long deepId = repository.findByUsername(SeededApplication.username(SeededApplication.ROWS - PAGE_SIZE))
+                .orElseThrow(IllegalStateException::new)
+                .getId();
+        deepCursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(deepId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private MemberUser randomMember() {
+        return members.get(ThreadLocalRandom.current().nextInt(members.size()));
+    }
+
+    @Benchmark
+    public UserResponse mapToDto_memberUser() {
+        return userService.mapToDto(randomMember());
+    }
+
+    @Benchmark
+    public UserResponse mapToDto_adminUser() {
+        return userService.mapToDto(admin);
+    }
+
+    @Benchmark
+    public UserProfile mapUserToProfile() {
+        return userService.mapUserToProfile(randomMember());
+    }
+
+    @Benchmark
+    public PaginatedResponse<UserResponse> getAllUsers_firstPage() {
+        return userService.getAllUsers(PageRequest.of(0, PAGE_SIZE), null);
+    }
+
+    @Benchmark
+    public PaginatedResponse<UserResponse> getAllUsers_lastPage() {
+        return userService.getAllUsers(PageRequest.of(SeededApplication.ROWS / PAGE_SIZE - 1, PAGE_SIZE), null);
+    }
+
+    @Benchmark
+    public CursorPaginatedResponse<UserResponse> getAllUsersAfter_lastPage() {
+        return userService.getAllUsersAfter(deepCursor, PAGE_SIZE, null, false);
+    }
+
+}
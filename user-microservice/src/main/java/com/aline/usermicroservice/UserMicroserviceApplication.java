@@ -12,6 +12,8 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
 @SpringBootApplication
 @EnableCoreModule
+@EntityScan("com.aline.usermicroservice.model")
+@EnableJpaRepositories("com.aline.usermicroservice.repository")
 @OpenAPIDefinition(info =
     @Info(
             title = "User Microservice API",
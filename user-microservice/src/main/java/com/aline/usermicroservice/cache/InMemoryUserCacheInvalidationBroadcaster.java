@@ -0,0 +1,62 @@
+package com.aline.usermicroservice.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts invalidations to every application context running
+ * in the same JVM. Meant for tests and single node setups.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.cache.users", name = "invalidation", havingValue = "memory")
+public class InMemoryUserCacheInvalidationBroadcaster implements UserCacheInvalidationBroadcaster {
+
+    private static final Set<InMemoryUserCacheInvalidationBroadcaster> NODES = new CopyOnWriteArraySet<>();
+
+    private final List<Consumer<UserCacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    public InMemoryUserCacheInvalidationBroadcaster() {
+        NODES.add(this);
+    }
+
+    @PreDestroy
+    public void leave() {
+        NODES.remove(this);
+    }
+
+    @Override
+    public void publish(UserCacheInvalidation invalidation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deliver(invalidation);
+                }
+            });
+        } else {
+            deliver(invalidation);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<UserCacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    private void deliver(UserCacheInvalidation invalidation) {
+        for (InMemoryUserCacheInvalidationBroadcaster node : NODES) {
+            if (node != this)
+                node.listeners.forEach(listener -> listener.accept(invalidation));
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.aline.usermicroservice.cache;
+
+import com.aline.usermicroservice.config.UserCacheProperties;
+import com.aline.usermicroservice.model.UserCacheInvalidationEvent;
+import com.aline.usermicroservice.repository.UserCacheInvalidationEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts invalidations through the <code>user_cache_invalidation</code>
+ * table of the service database.
+ * <br/>
+ * Publishing inserts a row in the caller's transaction, so the event is
+ * only visible once the write commits. Every node polls the table every
+ * <code>app.cache.users.invalidation-poll-interval</code>, which bounds
+ * the lag before other nodes evict.
+ * <br/>
+ * Each poll reads the rows after the highest ID seen so far, so clocks
+ * do not matter. IDs are allocated on insert, so a row that commits late
+ * appears below that cursor. IDs a poll skipped are looked for again
+ * until <code>invalidation-grace</code> has passed (rolled back inserts
+ * leave gaps that never fill).
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.cache.users", name = "invalidation", havingValue = "jdbc", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j(topic = "JDBC User Cache Invalidation")
+public class JdbcUserCacheInvalidationBroadcaster implements UserCacheInvalidationBroadcaster {
+
+    private static final int MAX_TRACKED_GAPS = 1000;
+
+    private final UserCacheInvalidationEventRepository repository;
+    private final UserCacheProperties properties;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<Consumer<UserCacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    // Skipped IDs and when they were first skipped. Only used by poll().
+    private final Map<Long, LocalDateTime> gaps = new LinkedHashMap<>();
+    private long lastId;
+
+    @PostConstruct
+    public void init() {
+        // Nothing is cached yet, so earlier invalidations do not matter.
+        lastId = repository.findMaxId().orElse(0L);
+    }
+
+    @Override
+    public void publish(UserCacheInvalidation invalidation) {
+        repository.save(UserCacheInvalidationEvent.builder()
+                .userId(invalidation.getUserId())
+                .usernames(String.join(",", invalidation.getUsernames()))
+                .origin(nodeId)
+                .created(LocalDateTime.now())
+                .build());
+    }
+
+    @Override
+    public void subscribe(Consumer<UserCacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.users.invalidation-poll-interval:1000}")
+    public synchronized void poll() {
+        LocalDateTime now = LocalDateTime.now();
+        List<UserCacheInvalidationEvent> events = new ArrayList<>();
+        if (!gaps.isEmpty())
+            events.addAll(repository.findAllByIdIn(new ArrayList<>(gaps.keySet())));
+        events.addAll(repository.findAllByIdGreaterThanOrderByIdAsc(lastId));
+
+        int applied = 0;
+        for (UserCacheInvalidationEvent event : events) {
+            long id = event.getId();
+            if (id > lastId) {
+                // Ascending, so every ID between the cursor and this one was skipped.
+                for (long skipped = Math.max(lastId + 1, id - MAX_TRACKED_GAPS); skipped < id; skipped++)
+                    gaps.put(skipped, now);
+                lastId = id;
+            } else {
+                gaps.remove(id);
+            }
+            if (nodeId.equals(event.getOrigin()))
+                continue;
+            UserCacheInvalidation invalidation = new UserCacheInvalidation(event.getUserId(), usernames(event));
+            listeners.forEach(listener -> listener.accept(invalidation));
+            applied++;
+        }
+        LocalDateTime expired = now.minus(properties.getInvalidationGrace());
+        gaps.values().removeIf(skippedAt -> skippedAt.isBefore(expired));
+
+        if (applied > 0)
+            log.debug("Applied {} user cache invalidation(s).", applied);
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.users.invalidation-cleanup-interval:60000}")
+    public void cleanUp() {
+        int deleted = repository.deleteAllCreatedBefore(LocalDateTime.now().minus(properties.getInvalidationRetention()));
+        if (deleted > 0)
+            log.debug("Deleted {} old user cache invalidation(s).", deleted);
+    }
+
+    private static List<String> usernames(UserCacheInvalidationEvent event) {
+        if (event.getUsernames() == null || event.getUsernames().isEmpty())
+            return Collections.emptyList();
+        return Arrays.asList(event.getUsernames().split(","));
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.aline.usermicroservice.cache;
+
+import com.aline.core.model.Member;
+import com.aline.usermicroservice.config.MemberCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+/**
+ * Bounded, expiring in-process cache of members by membership ID.
+ * <br/>
+ * Only the member ID and a digest of the last four digits of the
+ * applicant's SSN are kept, never the SSN itself. The digest is an
+ * HMAC-SHA256 keyed with a random salt generated when the cache is
+ * created, so it cannot be reversed with a table of the 10,000
+ * possible suffixes and is useless outside this process.
+ * <br/>
+ * Hit, miss and eviction statistics are published as
+ * <code>cache.*</code> meters (<code>cache=members</code>).
+ */
+@Component
+@Slf4j(topic = "Member Cache")
+public class MemberCache {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int SUFFIX_LENGTH = 4;
+
+    private final Cache<String, Entry> members;
+    private final SecretKeySpec salt;
+
+    public MemberCache(MemberCacheProperties properties, MeterRegistry meterRegistry) {
+        members = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumSize(properties.isEnabled() ? properties.getMaximumSize() : 0)
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .<String, Entry>build(), "members");
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        salt = new SecretKeySpec(key, ALGORITHM);
+    }
+
+    @Nullable
+    public Entry get(String membershipId) {
+        return members.getIfPresent(membershipId);
+    }
+
+    /**
+     * Cache a member loaded with its applicant.
+     * @param member The member.
+     * @return The cached entry.
+     */
+    public Entry put(Member member) {
+        String ssn = member.getApplicant().getSocialSecurity();
+        Entry entry = new Entry(member.getId(), digest(ssn.substring(Math.max(0, ssn.length() - SUFFIX_LENGTH))));
+        members.put(member.getMembershipId(), entry);
+        return entry;
+    }
+
+    /**
+     * Evict a membership. If a transaction is active it is evicted
+     * again after the commit, so a concurrent read cannot cache the
+     * data from before the commit.
+     * @param membershipId The membership ID of the member.
+     */
+    public void evict(String membershipId) {
+        log.debug("Evicting membership {} from cache.", membershipId);
+        members.invalidate(membershipId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    members.invalidate(membershipId);
+                }
+            });
+        }
+    }
+
+    private byte[] digest(String value) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(salt);
+            return mac.doFinal(value.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to digest the SSN suffix.", e);
+        }
+    }
+
+    /**
+     * A cached member.
+     */
+    public final class Entry {
+
+        private final long memberId;
+        private final byte[] ssnSuffixDigest;
+
+        private Entry(long memberId, byte[] ssnSuffixDigest) {
+            this.memberId = memberId;
+            this.ssnSuffixDigest = ssnSuffixDigest;
+        }
+
+        public long getMemberId() {
+            return memberId;
+        }
+
+        /**
+         * @param lastFourOfSSN The last four digits of the SSN to check.
+         * @return Whether they are the last four digits of the member's SSN.
+         */
+        public boolean matches(String lastFourOfSSN) {
+            return lastFourOfSSN != null
+                    && lastFourOfSSN.length() == SUFFIX_LENGTH
+                    && MessageDigest.isEqual(ssnSuffixDigest, digest(lastFourOfSSN));
+        }
+
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.aline.usermicroservice.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Strong ETags of JSON response DTOs.
+ * <br/>
+ * The tag is the MD5 of the body as it is serialized, so it changes
+ * exactly when the response does. It is computed once per DTO
+ * instance and kept for as long as the instance is reachable, so
+ * DTOs served from the {@link UserCache} are revalidated without
+ * being loaded, mapped or serialized again.
+ */
+@Component
+public class ResponseEtagCache {
+
+    private final ObjectMapper objectMapper;
+
+    // Weak keys compare by identity and drop the tag once the DTO is collected.
+    private final Cache<Object, String> etags = Caffeine.newBuilder()
+            .weakKeys()
+            .build();
+
+    public ResponseEtagCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Get the ETag of a response body.
+     * @param body The response DTO. Must not be modified after it is tagged.
+     * @return The quoted strong ETag.
+     */
+    public String etag(Object body) {
+        return etags.get(body, this::digest);
+    }
+
+    private String digest(Object body) {
+        try {
+            return "\"" + DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(body)) + "\"";
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the response to compute its ETag.", e);
+        }
+    }
+
+}
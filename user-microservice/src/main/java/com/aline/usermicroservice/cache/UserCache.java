@@ -0,0 +1,152 @@
+package com.aline.usermicroservice.cache;
+
+import com.aline.core.dto.response.UserProfile;
+import com.aline.core.dto.response.UserResponse;
+import com.aline.usermicroservice.config.UserCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded, expiring in-process cache of mapped {@link UserResponse}
+ * and {@link UserProfile} DTOs.
+ * <br/>
+ * Entries are stored by user ID. A username index points to the ID
+ * so the current user can be resolved from the authentication name.
+ * Hit, miss and eviction statistics are published to the actuator
+ * metrics endpoint as <code>cache.*</code> meters.
+ * <br/>
+ * Evictions are broadcast to the other replicas with the
+ * {@link UserCacheInvalidationBroadcaster}.
+ */
+@Component
+@Slf4j(topic = "User Cache")
+public class UserCache {
+
+    private final Cache<Long, UserResponse> responses;
+    private final Cache<Long, UserProfile> profiles;
+    private final Cache<String, Long> usernames;
+
+    private final UserCacheInvalidationBroadcaster broadcaster;
+
+    public UserCache(UserCacheProperties properties, MeterRegistry meterRegistry, UserCacheInvalidationBroadcaster broadcaster) {
+        responses = CaffeineCacheMetrics.monitor(meterRegistry, build(properties), "users.responses");
+        profiles = CaffeineCacheMetrics.monitor(meterRegistry, build(properties), "users.profiles");
+        usernames = CaffeineCacheMetrics.monitor(meterRegistry, build(properties), "users.usernames");
+        this.broadcaster = broadcaster;
+        broadcaster.subscribe(invalidation ->
+                evictNow(invalidation.getUserId(), invalidation.getUsernames().toArray(new String[0])));
+    }
+
+    private static <K, V> Cache<K, V> build(UserCacheProperties properties) {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.isEnabled() ? properties.getMaximumSize() : 0)
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+    }
+
+    @Nullable
+    public UserResponse getResponse(long id) {
+        return responses.getIfPresent(id);
+    }
+
+    @Nullable
+    public UserResponse getResponse(String username) {
+        Long id = usernames.getIfPresent(username);
+        return id == null ? null : getResponse(id);
+    }
+
+    public void putResponse(UserResponse response) {
+        responses.put(response.getId(), response);
+        usernames.put(response.getUsername(), response.getId());
+    }
+
+    /**
+     * Look up the ID of a user by username.
+     * @param username The username of the user.
+     * @return The ID or null if the username is not indexed.
+     */
+    @Nullable
+    public Long getId(String username) {
+        return usernames.getIfPresent(username);
+    }
+
+    public void putId(String username, long id) {
+        usernames.put(username, id);
+    }
+
+    @Nullable
+    public UserProfile getProfile(long id) {
+        return profiles.getIfPresent(id);
+    }
+
+    @Nullable
+    public UserProfile getProfile(String username) {
+        Long id = usernames.getIfPresent(username);
+        return id == null ? null : getProfile(id);
+    }
+
+    public void putProfile(long id, UserProfile profile) {
+        profiles.put(id, profile);
+        usernames.put(profile.getUsername(), id);
+    }
+
+    /**
+     * Evict every entry of a user on this node and publish the
+     * invalidation to the other nodes.
+     * <br/>
+     * If a transaction is active the entries are evicted again after it
+     * commits, so a concurrent read cannot cache the data from before
+     * the commit.
+     * @param id The ID of the user.
+     * @param usernames The usernames the user is (or was) known by.
+     */
+    public void evict(long id, String... usernames) {
+        evictNow(id, usernames);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(id, usernames);
+                }
+            });
+        }
+        broadcaster.publish(new UserCacheInvalidation(id, nonNull(usernames)));
+    }
+
+    private static List<String> nonNull(String... names) {
+        List<String> list = new ArrayList<>(names.length);
+        for (String name : names) {
+            if (name != null)
+                list.add(name);
+        }
+        return list;
+    }
+
+    private void evictNow(long id, String... names) {
+        log.debug("Evicting user {} from cache.", id);
+        UserResponse response = responses.getIfPresent(id);
+        if (response != null)
+            usernames.invalidate(response.getUsername());
+        UserProfile profile = profiles.getIfPresent(id);
+        if (profile != null)
+            usernames.invalidate(profile.getUsername());
+        for (String name : names) {
+            if (name != null)
+                usernames.invalidate(name);
+        }
+        responses.invalidate(id);
+        profiles.invalidate(id);
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.aline.usermicroservice.cache;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * An event telling every node to evict a user from its {@link UserCache}.
+ */
+@Value
+public class UserCacheInvalidation {
+
+    long userId;
+
+    /**
+     * The usernames the user is (or was) known by.
+     */
+    List<String> usernames;
+
+}
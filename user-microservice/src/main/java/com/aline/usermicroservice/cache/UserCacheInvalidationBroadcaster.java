@@ -0,0 +1,27 @@
+package com.aline.usermicroservice.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts {@link UserCacheInvalidation} events to the other
+ * replicas of the service so their user caches do not go stale
+ * when a different node handles a write.
+ * <br/>
+ * The implementation is selected with <code>app.cache.users.invalidation</code>.
+ */
+public interface UserCacheInvalidationBroadcaster {
+
+    /**
+     * Publish an invalidation to the other nodes. If a transaction
+     * is active the event must only become visible once it commits.
+     * @param invalidation The invalidation to publish.
+     */
+    void publish(UserCacheInvalidation invalidation);
+
+    /**
+     * Register a listener for invalidations published by other nodes.
+     * @param listener The listener to call for every received invalidation.
+     */
+    void subscribe(Consumer<UserCacheInvalidation> listener);
+
+}
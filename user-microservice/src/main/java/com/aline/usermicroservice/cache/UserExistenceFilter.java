@@ -0,0 +1,186 @@
+package com.aline.usermicroservice.cache;
+
+import com.aline.core.model.user.AdminUser;
+import com.aline.core.model.user.User;
+import com.aline.core.repository.AdminUserRepository;
+import com.aline.core.repository.UserRepository;
+import com.aline.usermicroservice.config.ExistenceFilterProperties;
+import com.aline.usermicroservice.repository.UserStreamRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filters of the taken usernames and admin emails.
+ * <br/>
+ * A value the filter does not contain is definitely not taken, so
+ * registrations and <code>GET /users/availability</code> can skip the
+ * existence query for it. A value it might contain is looked up in
+ * the database as before. The unique constraints stay authoritative.
+ * <br/>
+ * The filters are rebuilt from the database every
+ * <code>app.existence-filter.rebuild-interval</code>. Values taken on
+ * this node are added right away. Usernames registered or renamed on
+ * other nodes arrive through the {@link UserCacheInvalidationBroadcaster},
+ * admin emails taken on other nodes only with the next rebuild. Until
+ * the first build completes every value might be taken.
+ */
+@Component
+@Slf4j(topic = "User Existence Filter")
+public class UserExistenceFilter {
+
+    private final ExistenceFilterProperties properties;
+    private final UserRepository userRepository;
+    private final AdminUserRepository adminUserRepository;
+    private final UserStreamRepository streamRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final UserCacheInvalidationBroadcaster broadcaster;
+    private final Counter definitelyAbsent;
+    private final Counter mightBeTaken;
+
+    private volatile Filters current;
+    private volatile Filters building;
+
+    public UserExistenceFilter(ExistenceFilterProperties properties,
+                               UserRepository userRepository,
+                               AdminUserRepository adminUserRepository,
+                               UserStreamRepository streamRepository,
+                               TransactionTemplate transactionTemplate,
+                               UserCacheInvalidationBroadcaster broadcaster,
+                               MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.userRepository = userRepository;
+        this.adminUserRepository = adminUserRepository;
+        this.streamRepository = streamRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.broadcaster = broadcaster;
+        definitelyAbsent = Counter.builder("user.existence.filter.checks")
+                .tag("result", "absent")
+                .description("Values the existence filter ruled out without a query")
+                .register(meterRegistry);
+        mightBeTaken = Counter.builder("user.existence.filter.checks")
+                .tag("result", "maybe")
+                .description("Values the existence filter sent to the database")
+                .register(meterRegistry);
+        Gauge.builder("user.existence.filter.size", this, filter -> filter.current != null ? filter.current.sizeInBytes() : 0)
+                .description("Bytes used by the existence filters")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        broadcaster.subscribe(invalidation -> invalidation.getUsernames().forEach(this::addUsername));
+    }
+
+    /**
+     * @param username The username to check.
+     * @return False if no user has the username. True if it might be taken.
+     */
+    public boolean mightContainUsername(String username) {
+        Filters filters = current;
+        return count(filters == null || filters.usernames.mightContain(username));
+    }
+
+    /**
+     * @param email The email to check.
+     * @return False if no admin user has the email. True if it might be taken.
+     */
+    public boolean mightContainEmail(String email) {
+        Filters filters = current;
+        return count(filters == null || filters.emails.mightContain(email));
+    }
+
+    /**
+     * Add the username (and email of an admin) of a saved user
+     * and publish the username to the other nodes.
+     * @param user The user that was saved.
+     */
+    public void add(User user) {
+        addUsername(user.getUsername());
+        if (user instanceof AdminUser)
+            addEmail(((AdminUser) user).getEmail());
+        broadcaster.publish(new UserCacheInvalidation(user.getId(), Collections.singletonList(user.getUsername())));
+    }
+
+    public void addUsername(@Nullable String username) {
+        if (username == null)
+            return;
+        Filters filters = current;
+        Filters next = building;
+        if (filters != null)
+            filters.usernames.put(username);
+        if (next != null)
+            next.usernames.put(username);
+    }
+
+    private void addEmail(@Nullable String email) {
+        if (email == null)
+            return;
+        Filters filters = current;
+        Filters next = building;
+        if (filters != null)
+            filters.emails.put(email);
+        if (next != null)
+            next.emails.put(email);
+    }
+
+    /**
+     * Build new filters from the database and swap them in.
+     * Values added while the rebuild runs go to both filters.
+     */
+    @Scheduled(fixedDelayString = "${app.existence-filter.rebuild-interval:600000}")
+    public void rebuild() {
+        if (!properties.isEnabled())
+            return;
+        long started = System.currentTimeMillis();
+        Filters next = new Filters(
+                new BloomFilter(expectedInsertions(userRepository.count()), properties.getFalsePositiveProbability()),
+                new BloomFilter(expectedInsertions(adminUserRepository.count()), properties.getFalsePositiveProbability()));
+        building = next;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<String> usernames = streamRepository.streamUsernames(properties.getFetchSize())) {
+                    usernames.forEach(next.usernames::put);
+                }
+                try (Stream<String> emails = streamRepository.streamAdminEmails(properties.getFetchSize())) {
+                    emails.forEach(next.emails::put);
+                }
+            });
+            current = next;
+            log.debug("Rebuilt the existence filters ({} bytes) in {}ms.", next.sizeInBytes(), System.currentTimeMillis() - started);
+        } finally {
+            building = null;
+        }
+    }
+
+    private long expectedInsertions(long rows) {
+        return Math.max(properties.getExpectedInsertions(), rows * 2);
+    }
+
+    private boolean count(boolean mightContain) {
+        (mightContain ? mightBeTaken : definitelyAbsent).increment();
+        return mightContain;
+    }
+
+    private static class Filters {
+
+        private final BloomFilter usernames;
+        private final BloomFilter emails;
+
+        Filters(BloomFilter usernames, BloomFilter emails) {
+            this.usernames = usernames;
+            this.emails = emails;
+        }
+
+        long sizeInBytes() {
+            return usernames.sizeInBytes() + emails.sizeInBytes();
+        }
+
+    }
+
+}
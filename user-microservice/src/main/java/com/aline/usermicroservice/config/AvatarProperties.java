@@ -0,0 +1,81 @@
+package com.aline.usermicroservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Properties of user avatars.
+ * Bound from <code>app.avatar.*</code>.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.avatar")
+public class AvatarProperties {
+
+    /**
+     * Largest avatar upload that is accepted.
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(2);
+
+    /**
+     * Where full size avatars are stored.
+     * <code>jdbc</code> keeps them as blobs in the service database,
+     * <code>filesystem</code> keeps them as files under <code>directory</code>.
+     */
+    private String store = "jdbc";
+
+    /**
+     * Root directory of the <code>filesystem</code> store.
+     */
+    private Path directory = Paths.get("avatars");
+
+    /**
+     * Copy the avatars in the database into the configured store on startup.
+     */
+    private boolean migrate = false;
+
+    /**
+     * Delete the database blob of every avatar once it was copied by the migration.
+     */
+    private boolean migrateDeleteSource = false;
+
+    /**
+     * How long the browser may serve an avatar
+     * before revalidating it with its ETag.
+     */
+    private Duration maxAge = Duration.ofHours(1);
+
+    /**
+     * Widths (and heights) of the thumbnails rendered for every avatar.
+     */
+    private List<Integer> thumbnailSizes = Arrays.asList(32, 64, 256);
+
+    /**
+     * Largest width of the stored full size avatar. Larger uploads are scaled down.
+     */
+    private int maxDimension = 1024;
+
+    /**
+     * Smallest width and height of an upload.
+     */
+    private int minDimension = 16;
+
+    /**
+     * Most pixels an upload may have. Checked before the image is decoded.
+     */
+    private long maxInputPixels = 4096L * 4096L;
+
+    /**
+     * Quality of re-encoded JPEG avatars between 0 and 1.
+     */
+    private float jpegQuality = 0.85f;
+
+}
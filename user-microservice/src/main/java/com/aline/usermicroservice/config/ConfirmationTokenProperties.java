@@ -0,0 +1,35 @@
+package com.aline.usermicroservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Properties of the registration confirmation tokens.
+ * Bound from <code>app.confirmation-token.*</code>.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.confirmation-token")
+public class ConfirmationTokenProperties {
+
+    /**
+     * The kind of token put in new confirmation emails.
+     * <code>table</code> stores a UUID token per user,
+     * <code>signed</code> issues a stateless HMAC signed token.
+     * Both kinds are accepted on confirmation whatever the mode.
+     */
+    private String mode = "table";
+
+    /**
+     * How long a signed token is valid.
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    public boolean isSigned() {
+        return "signed".equals(mode);
+    }
+
+}
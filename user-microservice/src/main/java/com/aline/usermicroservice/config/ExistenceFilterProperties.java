@@ -0,0 +1,46 @@
+package com.aline.usermicroservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Properties of the filter of taken usernames and emails.
+ * Bound from <code>app.existence-filter.*</code>.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.existence-filter")
+public class ExistenceFilterProperties {
+
+    /**
+     * Skip the existence queries of values that are definitely not taken.
+     * When disabled every value is looked up in the database.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Minimum number of values each filter is sized for. Filters are
+     * sized for twice the number of rows when that is larger.
+     */
+    private long expectedInsertions = 100_000;
+
+    /**
+     * False positive probability at the expected size.
+     */
+    private double falsePositiveProbability = 0.01;
+
+    /**
+     * How often the filters are rebuilt from the database. Removes deleted
+     * values and picks up registrations handled by the other replicas.
+     */
+    private Duration rebuildInterval = Duration.ofMinutes(10);
+
+    /**
+     * Rows fetched from the database at a time while rebuilding.
+     */
+    private int fetchSize = 1000;
+
+}
@@ -0,0 +1,35 @@
+package com.aline.usermicroservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Properties of the in-process cache of member
+ * lookups by membership ID.
+ * Bound from <code>app.cache.members.*</code>.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.cache.members")
+public class MemberCacheProperties {
+
+    /**
+     * Cache member lookups.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of cached memberships.
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * How long an entry is kept after it was cached. Bounds how long a
+     * change made by another replica or service can go unnoticed.
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+}
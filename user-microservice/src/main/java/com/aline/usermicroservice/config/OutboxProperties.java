@@ -0,0 +1,65 @@
+package com.aline.usermicroservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Properties of the email/SMS outbox dispatcher.
+ * Bound from <code>app.outbox.*</code>.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.outbox")
+public class OutboxProperties {
+
+    /**
+     * Poll the outbox table on a schedule. Disable this
+     * to drive the dispatcher manually (ex. in tests).
+     */
+    private boolean pollEnabled = true;
+
+    /**
+     * Delay between polls of the outbox table.
+     */
+    private Duration pollInterval = Duration.ofMillis(500);
+
+    /**
+     * Maximum number of messages claimed per poll.
+     */
+    private int batchSize = 50;
+
+    /**
+     * Number of worker threads delivering messages.
+     */
+    private int workers = 4;
+
+    /**
+     * Maximum number of claimed messages waiting for a worker.
+     */
+    private int queueCapacity = 100;
+
+    /**
+     * Number of delivery attempts before a message is marked as failed.
+     */
+    private int maxAttempts = 5;
+
+    /**
+     * Delay before the first retry. Doubles after each failed attempt.
+     */
+    private Duration initialBackoff = Duration.ofSeconds(2);
+
+    /**
+     * Upper bound of the retry delay.
+     */
+    private Duration maxBackoff = Duration.ofMinutes(5);
+
+    /**
+     * How long a claimed message is reserved for a worker before
+     * another dispatcher may claim it again.
+     */
+    private Duration lease = Duration.ofMinutes(1);
+
+}
@@ -0,0 +1,52 @@
+package com.aline.usermicroservice.config;
+
+import com.aline.usermicroservice.security.PasswordHashingPool;
+import com.aline.usermicroservice.security.PasswordUpgradeService;
+import com.aline.usermicroservice.security.PooledPasswordEncoder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@Configuration
+public class PasswordHashingConfig {
+
+    /**
+     * Wrap the password encoder provided by the core in a
+     * {@link PooledPasswordEncoder} so every caller (registration,
+     * password reset and login) hashes on the bounded pool.
+     */
+    @Bean
+    public static BeanPostProcessor pooledPasswordEncoderPostProcessor(ObjectProvider<PasswordHashingPool> poolProvider) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof PasswordEncoder && !(bean instanceof PooledPasswordEncoder))
+                    return new PooledPasswordEncoder((PasswordEncoder) bean, poolProvider);
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Let authentication providers declared as beans store rehashed
+     * passwords through the {@link PasswordUpgradeService}. Providers
+     * built by the default authentication configuration pick the
+     * service up on their own.
+     */
+    @Bean
+    public static BeanPostProcessor passwordUpgradePostProcessor(ObjectProvider<PasswordUpgradeService> upgradeServiceProvider) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DaoAuthenticationProvider)
+                    ((DaoAuthenticationProvider) bean).setUserDetailsPasswordService((user, newPassword) ->
+                            upgradeServiceProvider.getObject().updatePassword(user, newPassword));
+                return bean;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.aline.usermicroservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Properties of the password hashing pool.
+ * Bound from <code>app.password-hashing.*</code>.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.password-hashing")
+public class PasswordHashingProperties {
+
+    /**
+     * Number of threads hashing passwords. Defaults to the number of cores.
+     */
+    private int workers = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Number of hashing jobs that may wait for a worker.
+     * Requests beyond this are rejected with a 429.
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * Maximum time a request waits for its hash.
+     */
+    private Duration maxWait = Duration.ofSeconds(10);
+
+    /**
+     * BCrypt work factor used for new hashes.
+     * 0 keeps the work factor of the core password encoder.
+     */
+    private int strength = 0;
+
+    /**
+     * When set, the work factor is calibrated on startup to the
+     * highest cost that hashes within this latency, but never below
+     * <code>strength</code> or the work factor of the core encoder.
+     * Off by default so every replica uses the same work factor.
+     */
+    private Duration targetLatency;
+
+    /**
+     * Lowest work factor calibration may choose.
+     */
+    private int minStrength = 10;
+
+    /**
+     * Highest work factor calibration may choose.
+     */
+    private int maxStrength = 14;
+
+    /**
+     * Rehash passwords stored with an outdated work factor
+     * after a successful login.
+     */
+    private boolean rehashOnLogin = true;
+
+}
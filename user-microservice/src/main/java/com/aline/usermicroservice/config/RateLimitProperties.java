@@ -0,0 +1,106 @@
+package com.aline.usermicroservice.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Properties of the rate limiter of the public endpoints.
+ * Bound from <code>app.rate-limit.*</code>.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Reject requests that are over their limit.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Where the buckets are kept.
+     * <code>memory</code> limits each replica on its own,
+     * <code>jdbc</code> shares the limits through the service database.
+     */
+    private String store = "memory";
+
+    /**
+     * Maximum number of buckets kept by the <code>memory</code> store.
+     */
+    private long maximumKeys = 100_000;
+
+    /**
+     * How often the <code>jdbc</code> store deletes buckets that are full again.
+     */
+    private Duration cleanupInterval = Duration.ofMinutes(10);
+
+    /**
+     * <code>POST /users/registration</code>, keyed by username and membership ID.
+     */
+    private Policy registration = new Policy(new Limit(20, Duration.ofHours(1)), new Limit(5, Duration.ofHours(1)));
+
+    /**
+     * <code>POST /users/confirmation</code>. Only limited by IP.
+     */
+    private Policy confirmation = new Policy(new Limit(30, Duration.ofHours(1)), null);
+
+    /**
+     * <code>POST /users/password-reset-otp</code>, keyed by username.
+     * Every accepted request sends an SMS or an email.
+     */
+    private Policy otpRequest = new Policy(new Limit(10, Duration.ofHours(1)), new Limit(3, Duration.ofMinutes(15)));
+
+    /**
+     * <code>POST /users/otp-authentication</code> and
+     * <code>PUT /users/password-reset</code>, keyed by username.
+     */
+    private Policy otpVerification = new Policy(new Limit(30, Duration.ofHours(1)), new Limit(10, Duration.ofMinutes(15)));
+
+    /**
+     * <code>GET /users/availability</code>. Only limited by IP
+     * since every check is for a different username.
+     */
+    private Policy availability = new Policy(new Limit(120, Duration.ofMinutes(1)), null);
+
+    /**
+     * The limits of one endpoint.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Policy {
+
+        /**
+         * Limit per client IP address.
+         */
+        private Limit ip;
+
+        /**
+         * Limit per identity (username or membership ID).
+         * Null to only limit by IP.
+         */
+        private Limit identity;
+
+    }
+
+    /**
+     * Allows bursts of <code>capacity</code> requests, refilled
+     * evenly over <code>period</code>.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+
+        private int capacity;
+
+        private Duration period;
+
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.aline.usermicroservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Properties of the expired registration token, OTP and confirmation reaper.
+ * Bound from <code>app.reaper.*</code>.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.reaper")
+public class ReaperProperties {
+
+    /**
+     * Run the reaper on a schedule.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Delay between runs.
+     */
+    private Duration interval = Duration.ofMinutes(5);
+
+    /**
+     * Maximum number of rows deleted per statement.
+     * Every chunk is its own transaction so row locks are held briefly.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Pause between chunks to let other writers in.
+     */
+    private Duration chunkPause = Duration.ofMillis(100);
+
+    /**
+     * How long a run is reserved for one node. A run stops
+     * after half the lease and continues on the next run.
+     */
+    private Duration lease = Duration.ofMinutes(10);
+
+    /**
+     * Also delete passcodes that are stored as BCrypt hashes.
+     * They predate the HMAC format and have no expiry of their own,
+     * so they cannot be told apart from ones issued moments ago by
+     * replicas still running the old version. Only enable it once
+     * every replica writes the HMAC format and the OTP lifetime has
+     * passed since.
+     */
+    private boolean reapLegacyOtps = false;
+
+}
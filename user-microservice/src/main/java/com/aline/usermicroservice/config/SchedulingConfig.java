@@ -0,0 +1,13 @@
+package com.aline.usermicroservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables <code>@Scheduled</code> background jobs
+ * such as the outbox dispatcher.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,58 @@
+package com.aline.usermicroservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Properties of the in-process user cache.
+ * Bound from <code>app.cache.users.*</code>.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.cache.users")
+public class UserCacheProperties {
+
+    /**
+     * Cache user responses and profiles.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of entries in each cache.
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * How long an entry is kept after it was cached.
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(5);
+
+    /**
+     * How invalidations are broadcast to the other replicas.
+     * <code>jdbc</code> polls a table in the service database,
+     * <code>memory</code> only reaches contexts in the same JVM.
+     */
+    private String invalidation = "jdbc";
+
+    /**
+     * Delay between polls for invalidations. Bounds how long
+     * another node can serve a stale entry.
+     */
+    private Duration invalidationPollInterval = Duration.ofSeconds(1);
+
+    /**
+     * How long an invalidation ID skipped by a poll is looked for again.
+     * IDs are allocated on insert, so a transaction that commits late
+     * shows up below IDs that were already polled.
+     */
+    private Duration invalidationGrace = Duration.ofSeconds(5);
+
+    /**
+     * How long published invalidations are kept before they are deleted.
+     */
+    private Duration invalidationRetention = Duration.ofMinutes(10);
+
+}
@@ -0,0 +1,68 @@
+package com.aline.usermicroservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs request handling on virtual threads when
+ * <code>app.server.virtual-threads</code> is <code>true</code>.
+ * <br/>
+ * Tomcat hands every request (and MVC async work such as the
+ * streaming export) to a virtual thread per task executor, so
+ * a request blocked on JDBC, email or SMS no longer holds a platform
+ * thread and <code>server.tomcat.threads.max</code> stops being the
+ * ceiling. The JDBC pool (<code>spring.datasource.hikari.maximum-pool-size</code>)
+ * becomes the limit instead. BCrypt still runs on the bounded
+ * {@link com.aline.usermicroservice.security.PasswordHashingPool}.
+ * <br/>
+ * Requires Java 21 or newer (see the <code>modern-jdk</code> Maven profile).
+ * The executor is looked up reflectively so the module still compiles for Java 8.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.server", name = "virtual-threads", havingValue = "true")
+@Slf4j(topic = "Virtual Thread Configuration")
+public class VirtualThreadConfig implements WebMvcConfigurer {
+
+    private final ExecutorService virtualThreadExecutor = newVirtualThreadPerTaskExecutor();
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            log.info("Request handling runs on virtual threads.");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(String.format(
+                    "app.server.virtual-threads requires Java 21 or newer but the service runs on Java %s.",
+                    System.getProperty("java.version")), e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to create the virtual thread executor.", e);
+        }
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        return virtualThreadExecutor;
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new ConcurrentTaskExecutor(virtualThreadExecutor));
+    }
+
+}
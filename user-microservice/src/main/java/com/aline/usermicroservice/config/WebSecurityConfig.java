@@ -24,6 +24,8 @@ public class WebSecurityConfig extends AbstractWebSecurityConfig {
                         "/users/password-reset-otp")
                 .permitAll()
                 .antMatchers(HttpMethod.PUT, "/users/password-reset")
+                .permitAll()
+                .antMatchers(HttpMethod.GET, "/users/availability")
                 .permitAll();
     }
 
@@ -1,6 +1,7 @@
 package com.aline.usermicroservice.controller;
 
 import com.aline.core.dto.request.ConfirmUserRegistration;
+import com.aline.core.dto.request.MemberUserRegistration;
 import com.aline.core.dto.request.OtpAuthentication;
 import com.aline.core.dto.request.ResetPasswordAuthentication;
 import com.aline.core.dto.request.ResetPasswordRequest;
@@ -12,10 +13,22 @@ import com.aline.core.dto.response.PaginatedResponse;
 import com.aline.core.dto.response.UserProfile;
 import com.aline.core.dto.response.UserResponse;
 import com.aline.core.model.user.MemberUser;
-import com.aline.core.model.user.UserRegistrationToken;
 import com.aline.core.model.user.UserRole;
+import com.aline.usermicroservice.cache.ResponseEtagCache;
+import com.aline.usermicroservice.config.AvatarProperties;
+import com.aline.usermicroservice.dto.request.BulkUserRegistration;
+import com.aline.usermicroservice.dto.request.UserBatchRequest;
+import com.aline.usermicroservice.dto.response.BulkRegistrationResponse;
+import com.aline.usermicroservice.dto.response.CursorPaginatedResponse;
+import com.aline.usermicroservice.dto.response.UsernameAvailability;
+import com.aline.usermicroservice.model.AvatarMetadata;
+import com.aline.usermicroservice.model.AvatarThumbnail;
+import com.aline.usermicroservice.ratelimit.RateLimitPolicy;
+import com.aline.usermicroservice.ratelimit.RateLimiter;
 import com.aline.usermicroservice.service.AvatarService;
 import com.aline.usermicroservice.service.ResetPasswordService;
+import com.aline.usermicroservice.service.UserExportFormat;
+import com.aline.usermicroservice.service.UserExportService;
 import com.aline.usermicroservice.service.UserConfirmationService;
 import com.aline.usermicroservice.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -27,6 +40,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -40,11 +54,20 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
 import java.net.URI;
+import java.util.List;
+import java.util.Optional;
 
 @Tag(name = "Users")
 @RestController
@@ -60,6 +83,11 @@ public class UserController {
     private final UserConfirmationService confirmationService;
     private final ResetPasswordService passwordService;
 	private final AvatarService avatarService;
+    private final AvatarProperties avatarProperties;
+    private final UserExportService exportService;
+    private final RateLimiter rateLimiter;
+    private final ResponseEtagCache etagCache;
+
     @Operation(description = "Get a user by ID")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "User with specified ID found."),
@@ -71,27 +99,130 @@ public class UserController {
         return ResponseEntity
                 .ok()
                 .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etagCache.etag(userResponse))
                 .body(userResponse);
     }
 
-	@Operation(description = "Update avatar image for a user")
-	@PutMapping("/current/avatar")
+	@Operation(description = "Update avatar image for a user from a base64 data URI")
+	@PutMapping(path = "/current/avatar", consumes = MediaType.APPLICATION_JSON_VALUE)
 	public ResponseEntity<Void> putAvatar(
 			@CurrentSecurityContext(expression = "authentication") Authentication authentication,
 			@RequestBody UserAvatarRequest image) {
-		UserResponse currentUser = userService.getCurrentUser(authentication);
-		avatarService.putAvatar(currentUser.getId(), image);
+		avatarService.putAvatar(userService.getCurrentUserId(authentication), image);
 		return ResponseEntity.ok().build();
 	}
 
+	/**
+	 * Get the avatar of the current user as a base64 data URI.
+	 * The ETag is derived from the stored digest of the image,
+	 * so a 304 is sent without the image being read.
+	 */
 	@Operation(description = "Get avatar image for a user")
 	@GetMapping("/current/avatar")
 	public ResponseEntity<UserAvatarRequest> getAvatar(
-			@CurrentSecurityContext(expression = "authentication") Authentication authentication) {
-		UserResponse currentUser = userService.getCurrentUser(authentication);
+			@CurrentSecurityContext(expression = "authentication") Authentication authentication,
+			ServletWebRequest request) {
+		AvatarMetadata metadata = avatarService.getAvatarMetadata(userService.getCurrentUserId(authentication));
+		// Differs from the ETag of the binary image, which is another representation.
+		String etag = "data-uri-" + metadata.getEtag();
+		if (request.checkNotModified(etag))
+			return null;
 		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
-				.body(avatarService.getAvatar(currentUser.getId()));
+				.eTag(etag)
+				.body(avatarService.getAvatar(metadata));
+	}
+
+	@Operation(description = "Upload avatar image for the current user as a multipart file")
+	@ApiResponses({
+			@ApiResponse(responseCode = "204", description = "Avatar was stored."),
+			@ApiResponse(responseCode = "400", description = "The file is empty, too large or not an image.")
+	})
+	@PutMapping(path = "/current/avatar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+	public ResponseEntity<Void> putAvatarFile(
+			@CurrentSecurityContext(expression = "authentication") Authentication authentication,
+			@RequestPart("file") MultipartFile file) throws IOException {
+		avatarService.putAvatar(userService.getCurrentUserId(authentication), file.getBytes(), file.getContentType());
+		return ResponseEntity.noContent().build();
+	}
+
+	@Operation(description = "Upload avatar image for the current user as the raw request body")
+	@ApiResponses({
+			@ApiResponse(responseCode = "204", description = "Avatar was stored."),
+			@ApiResponse(responseCode = "400", description = "The image is empty or too large.")
+	})
+	@PutMapping(path = "/current/avatar", consumes = "image/*")
+	public ResponseEntity<Void> putAvatarImage(
+			@CurrentSecurityContext(expression = "authentication") Authentication authentication,
+			@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+			@RequestBody byte[] image) {
+		avatarService.putAvatar(userService.getCurrentUserId(authentication), image, contentType);
+		return ResponseEntity.noContent().build();
+	}
+
+	/**
+	 * Streams the avatar image of a user. Only the user and management
+	 * can read it. The response carries an ETag so the browser can
+	 * revalidate it with <code>If-None-Match</code> and get a 304 without
+	 * the image being read. It is cached as private, so shared caches
+	 * do not serve it to other users.
+	 * <br/>
+	 * When a size is passed the smallest pre-rendered thumbnail that is at
+	 * least that large is sent instead, so list views do not download full images.
+	 * @param id The ID of the user.
+	 * @param size The width in pixels the avatar is displayed at.
+	 * @param request The request used to check <code>If-None-Match</code>.
+	 * @param response The response the image is written to.
+	 * @throws IOException If the image could not be written.
+	 */
+	@Operation(description = "Get avatar image for a user")
+	@ApiResponses({
+			@ApiResponse(responseCode = "200", description = "Avatar image was sent."),
+			@ApiResponse(responseCode = "304", description = "Avatar has not changed since the passed ETag."),
+			@ApiResponse(responseCode = "403", description = "The avatar of another user was requested."),
+			@ApiResponse(responseCode = "404", description = "User has no avatar.")
+	})
+	@GetMapping("/{id}/avatar")
+	public void getAvatarImage(@PathVariable long id,
+							   @RequestParam(required = false) Integer size,
+							   ServletWebRequest request,
+							   HttpServletResponse response) throws IOException {
+		response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.maxAge(avatarProperties.getMaxAge())
+				.cachePrivate()
+				.getHeaderValue());
+
+		Optional<AvatarThumbnail> thumbnail = size == null ? Optional.empty() : avatarService.getThumbnail(id, size);
+		if (thumbnail.isPresent()) {
+			if (request.checkNotModified(thumbnail.get().getEtag()))
+				return;
+			response.setContentType(thumbnail.get().getContentType());
+			response.setContentLength(thumbnail.get().getImage().length);
+			response.getOutputStream().write(thumbnail.get().getImage());
+			return;
+		}
+
+		AvatarMetadata metadata = avatarService.getAvatarMetadata(id);
+		if (request.checkNotModified(metadata.getEtag()))
+			return;
+		response.setContentType(metadata.getContentType());
+		response.setContentLengthLong(metadata.getContentLength());
+		avatarService.copyAvatarTo(metadata, response.getOutputStream());
 	}
+
+    @Operation(description = "Get many users by ID in one call. Users that do not exist " +
+            "or cannot be accessed are left out. Users are returned in the order of the passed IDs.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "The accessible users were sent."),
+            @ApiResponse(responseCode = "400", description = "No IDs or too many IDs were passed.")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<List<UserResponse>> getUsersByIds(@Valid @RequestBody UserBatchRequest request) {
+        List<UserResponse> users = userService.getUsersByIds(request.getIds());
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(users);
+    }
+
     @Operation(description = "Get a paginated response of users")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Paginated response was sent. It may have an empty content array which means there are no users.")
@@ -107,19 +238,62 @@ public class UserController {
                 .body(userResponsePage);
     }
 
+    @Operation(description = "Get a cursor paginated response of users. Pass an empty 'after' for the first page " +
+            "and the returned 'nextCursor' for the following pages.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Cursor paginated response was sent. It may have an empty content array which means there are no more users."),
+            @ApiResponse(responseCode = "400", description = "The cursor or size is invalid.")
+    })
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorPaginatedResponse<UserResponse>> getAllUsersAfter(@RequestParam String after,
+                                                                                  @RequestParam(defaultValue = "20") int size,
+                                                                                  @RequestParam(defaultValue = "") String search,
+                                                                                  @RequestParam(defaultValue = "false") boolean count) {
+        CursorPaginatedResponse<UserResponse> response = userService.getAllUsersAfter(after, size, search, count);
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(response);
+    }
+
+    @Operation(description = "Export all users matching the search as NDJSON or CSV")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Users are streamed in the requested format."),
+            @ApiResponse(responseCode = "400", description = "The export format is not supported.")
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "") String search,
+                                                             @RequestParam(defaultValue = "ndjson") String format) {
+        UserExportFormat exportFormat = UserExportFormat.fromString(format);
+        StreamingResponseBody body = exportService.exportUsers(search, exportFormat);
+        String filename = String.format("users.%s", exportFormat.name().toLowerCase());
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, String.format("attachment; filename=\"%s\"", filename))
+                .body(body);
+    }
+
     @Operation(description = "Create a new user registration")
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "User has been successfully registered."),
             @ApiResponse(responseCode = "400", description = "The user registration DTO contained bad data."),
             @ApiResponse(responseCode = "409", description = "There was a data conflict when creating the user."),
-            @ApiResponse(responseCode = "502", description = "The user registration confirmation email was not sent.")
+            @ApiResponse(responseCode = "429", description = "Too many requests from the client or for the user.")
     })
     @PostMapping("/registration")
-    public ResponseEntity<UserResponse> registerUser(@Valid @RequestBody UserRegistration registration) {
+    public ResponseEntity<UserResponse> registerUser(@Valid @RequestBody UserRegistration registration,
+                                                     HttpServletRequest servletRequest) {
+        String membershipId = registration instanceof MemberUserRegistration
+                ? ((MemberUserRegistration) registration).getMembershipId()
+                : null;
+        rateLimiter.check(RateLimitPolicy.REGISTRATION, servletRequest.getRemoteAddr(), registration.getUsername(), membershipId);
+
         // Create a registration token for a member user when registration is successful.
+        // The confirmation email is queued in the outbox and sent after the registration commits.
         UserResponse response = userService.registerUser(registration, user -> {
             if (UserRole.valueOf(user.getRole().toUpperCase()) == UserRole.MEMBER) {
-                confirmationService.sendMemberUserConfirmationEmail((MemberUser) user);
+                confirmationService.queueMemberUserConfirmationEmail((MemberUser) user);
             }
         });
         URI location = ServletUriComponentsBuilder
@@ -134,6 +308,42 @@ public class UserController {
                 .body(response);
     }
 
+    @Operation(description = "Check whether a username can still be registered")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "The availability of the username. A username " +
+                    "registered through another instance may be reported as available for up to the cache " +
+                    "invalidation poll interval (1 second by default)."),
+            @ApiResponse(responseCode = "429", description = "Too many requests from the client.")
+    })
+    @GetMapping("/availability")
+    public ResponseEntity<UsernameAvailability> getUsernameAvailability(@RequestParam String username,
+                                                                        HttpServletRequest servletRequest) {
+        rateLimiter.check(RateLimitPolicy.AVAILABILITY, servletRequest.getRemoteAddr());
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(userService.getUsernameAvailability(username));
+    }
+
+    @Operation(description = "Register many users in one call. Each registration is checked on its own " +
+            "and gets a result with the status it would have received from a single registration.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "The registrations were processed. Check the result of each registration."),
+            @ApiResponse(responseCode = "400", description = "No registrations or too many registrations were passed.")
+    })
+    @PostMapping("/registration/bulk")
+    public ResponseEntity<BulkRegistrationResponse> registerUsers(@Valid @RequestBody BulkUserRegistration bulkRegistration) {
+        BulkRegistrationResponse response = userService.registerUsers(bulkRegistration.getRegistrations(), user -> {
+            if (UserRole.valueOf(user.getRole().toUpperCase()) == UserRole.MEMBER) {
+                confirmationService.queueMemberUserConfirmationEmail((MemberUser) user);
+            }
+        });
+        return ResponseEntity
+                .ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(response);
+    }
+
     /**
      * Confirms the registration of a user and enables their account.
      * @param confirmUserRegistration The confirm registration dto sent from the front-end
@@ -143,13 +353,15 @@ public class UserController {
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "User registration was successfully confirmed."),
             @ApiResponse(responseCode = "404", description = "User or registration was not found."),
-            @ApiResponse(responseCode = "410", description = "Token does not exist or is expired.")
+            @ApiResponse(responseCode = "410", description = "Token does not exist or is expired."),
+            @ApiResponse(responseCode = "429", description = "Too many requests from the client.")
     })
     @PostMapping("/confirmation")
-    public ResponseEntity<ConfirmUserRegistrationResponse> confirmUserRegistration(@Valid @RequestBody ConfirmUserRegistration confirmUserRegistration) {
+    public ResponseEntity<ConfirmUserRegistrationResponse> confirmUserRegistration(@Valid @RequestBody ConfirmUserRegistration confirmUserRegistration,
+                                                                                  HttpServletRequest servletRequest) {
+        rateLimiter.check(RateLimitPolicy.CONFIRMATION, servletRequest.getRemoteAddr());
 
-        UserRegistrationToken token = confirmationService.getTokenById(confirmUserRegistration.getToken());
-        ConfirmUserRegistrationResponse response = confirmationService.confirmRegistration(token);
+        ConfirmUserRegistrationResponse response = confirmationService.confirmRegistration(confirmUserRegistration.getToken());
 
         return ResponseEntity
                 .ok()
@@ -167,21 +379,24 @@ public class UserController {
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Password OTP is created."),
             @ApiResponse(responseCode = "404", description = "User to create the OTP for was not found."),
-            @ApiResponse(responseCode = "422", description = "One-time passcode was not sent through either SMS or Email.")
+            @ApiResponse(responseCode = "422", description = "One-time passcode was not sent through either SMS or Email."),
+            @ApiResponse(responseCode = "429", description = "Too many requests from the client or for the user.")
     })
     @PostMapping("/password-reset-otp")
-    public ResponseEntity<Void> createPasswordResetOtp(@Valid @RequestBody ResetPasswordAuthentication resetPasswordAuthentication) {
+    public ResponseEntity<Void> createPasswordResetOtp(@Valid @RequestBody ResetPasswordAuthentication resetPasswordAuthentication,
+                                                       HttpServletRequest servletRequest) {
+        rateLimiter.check(RateLimitPolicy.OTP_REQUEST, servletRequest.getRemoteAddr(), resetPasswordAuthentication.getUsername());
         passwordService.createResetPasswordRequest(resetPasswordAuthentication,
                 (otp, user) -> {
                     log.info("Contact Method: {}", resetPasswordAuthentication.getContactMethod());
                     switch (resetPasswordAuthentication.getContactMethod()) {
                         case PHONE:
-                            log.info("Send password reset message to {}. OTP is {}", user.getUsername(), otp);
-                            passwordService.sendOTPMessage(otp, user);
+                            log.info("Queue password reset message to {}.", user.getUsername());
+                            passwordService.queueOTPMessage(otp, user);
                             break;
                         case EMAIL:
-                            log.info("Send password reset email to {}. OTP is {}", user.getUsername(), otp);
-                            passwordService.sendOTPEmail(otp, user);
+                            log.info("Queue password reset email to {}.", user.getUsername());
+                            passwordService.queueOTPEmail(otp, user);
                             break;
                     }
                 });
@@ -197,10 +412,13 @@ public class UserController {
     @Operation(description = "Reset user password")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Password successfully reset."),
-            @ApiResponse(responseCode = "")
+            @ApiResponse(responseCode = ""),
+            @ApiResponse(responseCode = "429", description = "Too many requests from the client or for the user.")
     })
     @PutMapping("/password-reset")
-    public ResponseEntity<Void> resetPassword(@Valid @RequestBody ResetPasswordRequest request) {
+    public ResponseEntity<Void> resetPassword(@Valid @RequestBody ResetPasswordRequest request,
+                                              HttpServletRequest servletRequest) {
+        rateLimiter.check(RateLimitPolicy.OTP_VERIFICATION, servletRequest.getRemoteAddr(), request.getUsername());
         passwordService.resetPassword(request);
         return ResponseEntity.ok().build();
     }
@@ -214,10 +432,13 @@ public class UserController {
     @Operation(description = "Verify the OTP and allow it to be used.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "One-time passcode was successfully verified."),
-            @ApiResponse(responseCode = "401", description = "One-time passcode was not correct and was not verified.")
+            @ApiResponse(responseCode = "401", description = "One-time passcode was not correct and was not verified."),
+            @ApiResponse(responseCode = "429", description = "Too many requests from the client or for the user.")
     })
     @PostMapping("/otp-authentication")
-    public ResponseEntity<Void> authenticateOtp(@Valid @RequestBody OtpAuthentication authentication) {
+    public ResponseEntity<Void> authenticateOtp(@Valid @RequestBody OtpAuthentication authentication,
+                                                HttpServletRequest servletRequest) {
+        rateLimiter.check(RateLimitPolicy.OTP_VERIFICATION, servletRequest.getRemoteAddr(), authentication.getUsername());
         passwordService.verifyOtp(authentication.getOtp(), authentication.getUsername());
         return ResponseEntity.ok().build();
     }
@@ -239,6 +460,7 @@ public class UserController {
         return ResponseEntity
                 .ok()
                 .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etagCache.etag(currentUser))
                 .body(currentUser);
     }
 
@@ -254,6 +476,7 @@ public class UserController {
         return ResponseEntity
                 .ok()
                 .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etagCache.etag(profile))
                 .body(profile);
     }
 
@@ -270,6 +493,7 @@ public class UserController {
         return ResponseEntity
                 .ok()
                 .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etagCache.etag(currentProfile))
                 .body(currentProfile);
     }
 
@@ -0,0 +1,31 @@
+package com.aline.usermicroservice.dto.request;
+
+import com.aline.core.dto.request.UserRegistration;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Many user registrations to process in one call.
+ * The registrations are validated one by one so an invalid
+ * registration is reported without rejecting the others.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUserRegistration {
+
+    public static final int MAX_REGISTRATIONS = 1000;
+
+    @NotEmpty(message = "At least one registration is required.")
+    @Size(max = MAX_REGISTRATIONS, message = "Cannot register more than " + MAX_REGISTRATIONS + " users at once.")
+    private List<@NotNull UserRegistration> registrations;
+
+}
@@ -0,0 +1,28 @@
+package com.aline.usermicroservice.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * The IDs of the users to resolve in one call.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatchRequest {
+
+    public static final int MAX_IDS = 500;
+
+    @NotEmpty(message = "At least one user ID is required.")
+    @Size(max = MAX_IDS, message = "Cannot request more than " + MAX_IDS + " users at once.")
+    private List<@NotNull Long> ids;
+
+}
@@ -0,0 +1,26 @@
+package com.aline.usermicroservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The outcome of a bulk registration with one
+ * result per registration in the order of the request.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRegistrationResponse {
+
+    private int registered;
+
+    private int rejected;
+
+    private List<BulkRegistrationResult> results;
+
+}
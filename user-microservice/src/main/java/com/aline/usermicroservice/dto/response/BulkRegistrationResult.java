@@ -0,0 +1,41 @@
+package com.aline.usermicroservice.dto.response;
+
+import com.aline.core.dto.response.UserResponse;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The outcome of a single registration in a bulk registration.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkRegistrationResult {
+
+    /**
+     * Position of the registration in the request.
+     */
+    private int index;
+
+    /**
+     * The HTTP status the registration would have
+     * received from <code>POST /users/registration</code>.
+     */
+    private int status;
+
+    /**
+     * The registered user. Only present when the status is 201.
+     */
+    private UserResponse user;
+
+    /**
+     * Why the registration was rejected. Only present when it was rejected.
+     */
+    private String message;
+
+}
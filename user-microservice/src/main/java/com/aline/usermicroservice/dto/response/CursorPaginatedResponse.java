@@ -0,0 +1,42 @@
+package com.aline.usermicroservice.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A page of results that is walked with an opaque cursor
+ * instead of a page number. Pass <code>nextCursor</code> as the
+ * <code>after</code> parameter to retrieve the next page.
+ * @param <T> The type of the content.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPaginatedResponse<T> {
+
+    private List<T> content;
+
+    private int size;
+
+    private boolean hasNext;
+
+    /**
+     * Cursor of the last element in the content.
+     * Null when there are no more elements.
+     */
+    private String nextCursor;
+
+    /**
+     * Total number of elements matching the search.
+     * Only present when it was requested.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalElements;
+
+}
@@ -0,0 +1,21 @@
+package com.aline.usermicroservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Whether a username can still be registered.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsernameAvailability {
+
+    private String username;
+
+    private boolean available;
+
+}
@@ -0,0 +1,17 @@
+package com.aline.usermicroservice.exception;
+
+/**
+ * Thrown when the service is saturated or a client went
+ * over its limit. Results in a <code>429 Too Many Requests</code>.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    public TooManyRequestsException() {
+        super("Too many requests. Please try again later.");
+    }
+
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.aline.usermicroservice.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Collects what a single HTTP request spent its time on.
+ * <br/>
+ * The metrics are bound to the thread that handles the request
+ * by the {@link RequestMetricsFilter}. Recording outside of a
+ * request (ex. scheduled jobs) does nothing.
+ */
+public final class RequestMetrics {
+
+    /**
+     * The dependencies whose time is recorded per request.
+     */
+    public enum Dependency {
+        PASSWORD_ENCODER,
+        EMAIL,
+        SMS
+    }
+
+    private static final ThreadLocal<RequestMetrics> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private final Map<Dependency, Long> dependencyNanos = new EnumMap<>(Dependency.class);
+
+    private RequestMetrics() {
+    }
+
+    static RequestMetrics start() {
+        RequestMetrics metrics = new RequestMetrics();
+        CURRENT.set(metrics);
+        return metrics;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Count a SQL statement for the current request.
+     */
+    public static void countStatement() {
+        RequestMetrics metrics = CURRENT.get();
+        if (metrics != null)
+            metrics.statements++;
+    }
+
+    /**
+     * Add time spent in a dependency to the current request.
+     * @param dependency The dependency.
+     * @param nanos The time spent in nanoseconds.
+     */
+    public static void recordDependency(Dependency dependency, long nanos) {
+        RequestMetrics metrics = CURRENT.get();
+        if (metrics != null)
+            metrics.dependencyNanos.merge(dependency, nanos, Long::sum);
+    }
+
+    int getStatements() {
+        return statements;
+    }
+
+    long getDependencyNanos(Dependency dependency) {
+        return dependencyNanos.getOrDefault(dependency, 0L);
+    }
+
+}
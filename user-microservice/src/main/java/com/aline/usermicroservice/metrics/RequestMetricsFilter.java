@@ -0,0 +1,70 @@
+package com.aline.usermicroservice.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the {@link RequestMetrics} of every request.
+ * <br/>
+ * <code>http.server.requests.statements</code> is the number of SQL
+ * statements and <code>http.server.requests.dependency</code> the time spent in
+ * each {@link RequestMetrics.Dependency}. Both are tagged with the method and
+ * URI pattern like <code>http.server.requests</code> so a slow endpoint can be
+ * broken down into hashing, email, SMS and database work.
+ * <br/>
+ * Registered ahead of the security filter chain by
+ * {@link com.aline.usermicroservice.config.MetricsConfig}.
+ */
+@RequiredArgsConstructor
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestMetrics metrics = RequestMetrics.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestMetrics.end();
+            record(request, metrics);
+        }
+    }
+
+    private void record(HttpServletRequest request, RequestMetrics metrics) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        DistributionSummary.builder("http.server.requests.statements")
+                .description("SQL statements prepared per request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(metrics.getStatements());
+
+        for (RequestMetrics.Dependency dependency : RequestMetrics.Dependency.values()) {
+            Timer.builder("http.server.requests.dependency")
+                    .description("Time spent in a dependency per request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .tag("dependency", dependency.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(metrics.getDependencyNanos(dependency), TimeUnit.NANOSECONDS);
+        }
+    }
+
+}
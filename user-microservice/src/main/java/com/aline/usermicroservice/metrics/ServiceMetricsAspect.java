@@ -0,0 +1,80 @@
+package com.aline.usermicroservice.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the public methods of the user microservice services
+ * and the calls to the core email and SMS services.
+ * <br/>
+ * Service methods are published as <code>user.service.duration</code>
+ * tagged with the class, method and thrown exception, with p50, p95 and
+ * p99. Email and SMS calls are published as <code>user.dependency.duration</code>
+ * and added to the {@link RequestMetrics} of the current request.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(public * com.aline.usermicroservice.service.UserService.*(..)) || " +
+            "execution(public * com.aline.usermicroservice.service.ResetPasswordService.*(..)) || " +
+            "execution(public * com.aline.usermicroservice.service.UserConfirmationService.*(..)) || " +
+            "execution(public * com.aline.usermicroservice.service.AvatarService.*(..))")
+    public Object timeServiceMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("user.service.duration")
+                    .description("Duration of user microservice service methods")
+                    .tag("class", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    @Around("execution(public * com.aline.core.aws.email.EmailService.*(..))")
+    public Object timeEmail(ProceedingJoinPoint joinPoint) throws Throwable {
+        return timeDependency(joinPoint, RequestMetrics.Dependency.EMAIL);
+    }
+
+    @Around("execution(public * com.aline.core.aws.sms.SMSService.*(..))")
+    public Object timeSms(ProceedingJoinPoint joinPoint) throws Throwable {
+        return timeDependency(joinPoint, RequestMetrics.Dependency.SMS);
+    }
+
+    private Object timeDependency(ProceedingJoinPoint joinPoint, RequestMetrics.Dependency dependency) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            RequestMetrics.recordDependency(dependency, elapsed);
+            Timer.builder("user.dependency.duration")
+                    .description("Duration of calls to external dependencies")
+                    .tag("dependency", dependency.name().toLowerCase())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+}
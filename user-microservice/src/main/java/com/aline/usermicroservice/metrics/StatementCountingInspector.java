@@ -0,0 +1,17 @@
+package com.aline.usermicroservice.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts every SQL statement Hibernate prepares
+ * towards the current request's {@link RequestMetrics}.
+ */
+public class StatementCountingInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestMetrics.countStatement();
+        return sql;
+    }
+
+}
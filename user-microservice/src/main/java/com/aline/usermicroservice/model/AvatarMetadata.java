@@ -0,0 +1,47 @@
+package com.aline.usermicroservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Describes the avatar image of a user so it can be served
+ * with the right headers and revalidated without reading the image.
+ */
+@Entity
+@Table(name = "avatar_metadata")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvatarMetadata {
+
+    /**
+     * The ID of the user (and of the avatar).
+     */
+    @Id
+    private Long userId;
+
+    @Column(nullable = false, length = 100)
+    private String contentType;
+
+    @Column(nullable = false)
+    private long contentLength;
+
+    /**
+     * Hex SHA-256 digest of the image.
+     */
+    @Column(nullable = false, length = 64)
+    private String etag;
+
+    @Column(nullable = false)
+    private LocalDateTime updated;
+
+}
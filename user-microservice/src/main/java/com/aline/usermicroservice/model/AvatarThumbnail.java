@@ -0,0 +1,64 @@
+package com.aline.usermicroservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * A pre-rendered square thumbnail of a user avatar.
+ * Thumbnails are small enough to be read whole.
+ */
+@Entity
+@Table(name = "avatar_thumbnail")
+@IdClass(AvatarThumbnail.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvatarThumbnail {
+
+    @Id
+    private Long userId;
+
+    /**
+     * Width and height in pixels.
+     */
+    @Id
+    @Column(name = "thumbnail_size")
+    private Integer size;
+
+    @Column(nullable = false, length = 100)
+    private String contentType;
+
+    /**
+     * Hex SHA-256 digest of the image.
+     */
+    @Column(nullable = false, length = 64)
+    private String etag;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] image;
+
+    @Column(nullable = false)
+    private LocalDateTime updated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private Integer size;
+    }
+
+}
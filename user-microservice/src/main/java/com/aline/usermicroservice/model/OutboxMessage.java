@@ -0,0 +1,95 @@
+package com.aline.usermicroservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+import javax.persistence.Version;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * A message (email or SMS) that is persisted in the same
+ * transaction as the entity that caused it and is delivered
+ * later by the {@link com.aline.usermicroservice.service.outbox.OutboxDispatcher}.
+ */
+@Entity
+@Table(name = "outbox_message", indexes = {
+        @Index(name = "idx_outbox_message_status_next_attempt", columnList = "status, nextAttemptAt")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private OutboxMessageType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    @Builder.Default
+    private OutboxMessageStatus status = OutboxMessageStatus.PENDING;
+
+    /**
+     * Email address or phone number.
+     */
+    @Column(nullable = false)
+    private String recipient;
+
+    /**
+     * Email subject or SMS type.
+     */
+    private String subject;
+
+    /**
+     * Email template name or SMS message.
+     */
+    @Lob
+    private String content;
+
+    /**
+     * Email template variables.
+     */
+    @Lob
+    @Convert(converter = StringMapConverter.class)
+    private Map<String, String> variables;
+
+    @Builder.Default
+    private int attempts = 0;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(nullable = false)
+    private LocalDateTime created;
+
+    private LocalDateTime sent;
+
+    private String lastError;
+
+    /**
+     * Bumped by every claim, so a dispatcher whose lease expired
+     * and was claimed again cannot overwrite the new outcome.
+     */
+    @Version
+    private long version;
+
+}
@@ -0,0 +1,24 @@
+package com.aline.usermicroservice.model;
+
+/**
+ * The delivery status of an {@link OutboxMessage}.
+ */
+public enum OutboxMessageStatus {
+    /**
+     * Waiting to be picked up by the dispatcher.
+     */
+    PENDING,
+    /**
+     * Claimed by a dispatcher worker. If the lease runs out
+     * before the message is sent it becomes claimable again.
+     */
+    PROCESSING,
+    /**
+     * Delivered to the provider.
+     */
+    SENT,
+    /**
+     * Delivery failed and the maximum number of attempts was reached.
+     */
+    FAILED
+}
@@ -0,0 +1,9 @@
+package com.aline.usermicroservice.model;
+
+/**
+ * The delivery channel of an {@link OutboxMessage}.
+ */
+public enum OutboxMessageType {
+    EMAIL,
+    SMS
+}
@@ -0,0 +1,34 @@
+package com.aline.usermicroservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * A rate limit bucket shared by all replicas.
+ */
+@Entity
+@Table(name = "rate_limit_bucket")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateLimitBucket {
+
+    @Id
+    @Column(name = "bucket_key", length = 191)
+    private String key;
+
+    /**
+     * Epoch milliseconds at which the bucket is full again.
+     */
+    @Column(name = "full_at", nullable = false)
+    private long fullAt;
+
+}
@@ -0,0 +1,36 @@
+package com.aline.usermicroservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Records that a user confirmed their registration with a signed token.
+ * <br/>
+ * Signed tokens are not stored, so this row is what makes them single
+ * use. The <code>enabled</code> flag cannot, since disabling a profile
+ * clears it again. Rows are deleted by the reaper once every token
+ * issued before the confirmation has expired.
+ */
+@Entity
+@Table(name = "registration_confirmation")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegistrationConfirmation {
+
+    @Id
+    private Long userId;
+
+    @Column(nullable = false)
+    private LocalDateTime confirmedAt;
+
+}
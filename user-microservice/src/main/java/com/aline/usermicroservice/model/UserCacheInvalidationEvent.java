@@ -0,0 +1,52 @@
+package com.aline.usermicroservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * A user cache invalidation written by one node and
+ * polled by the others.
+ */
+@Entity
+@Table(name = "user_cache_invalidation", indexes = {
+        @Index(name = "idx_user_cache_invalidation_created", columnList = "created")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserCacheInvalidationEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private long userId;
+
+    /**
+     * Comma separated usernames. Usernames cannot contain commas.
+     */
+    private String usernames;
+
+    /**
+     * The node that published the invalidation.
+     */
+    @Column(nullable = false, length = 36)
+    private String origin;
+
+    @Column(nullable = false)
+    private LocalDateTime created;
+
+}
@@ -0,0 +1,63 @@
+package com.aline.usermicroservice.ratelimit;
+
+import com.aline.usermicroservice.config.RateLimitProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the buckets in the memory of this replica.
+ * <br/>
+ * Each bucket is a single {@link AtomicLong} holding the time at which
+ * it is full again (the generic cell rate algorithm), so taking a token is
+ * one compare-and-set without locks. Buckets that were not used for the
+ * longest period are full again and are evicted.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.rate-limit", name = "store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private final Cache<String, AtomicLong> buckets;
+
+    public InMemoryRateLimitStore(RateLimitProperties properties) {
+        buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumKeys())
+                .expireAfterAccess(longestPeriod(properties).toNanos(), TimeUnit.NANOSECONDS)
+                .build();
+    }
+
+    @Override
+    public boolean tryConsume(String key, RateLimitProperties.Limit limit) {
+        long now = System.nanoTime();
+        AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(now));
+        long period = limit.getPeriod().toNanos();
+        long interval = period / limit.getCapacity();
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + interval;
+            if (next - now > period)
+                return false;
+            if (fullAt.compareAndSet(current, next))
+                return true;
+        }
+    }
+
+    private static Duration longestPeriod(RateLimitProperties properties) {
+        Duration longest = Duration.ofMinutes(1);
+        for (RateLimitProperties.Policy policy : new RateLimitProperties.Policy[] {
+                properties.getRegistration(), properties.getConfirmation(),
+                properties.getOtpRequest(), properties.getOtpVerification()}) {
+            for (RateLimitProperties.Limit limit : new RateLimitProperties.Limit[] {policy.getIp(), policy.getIdentity()}) {
+                if (limit != null && limit.getPeriod().compareTo(longest) > 0)
+                    longest = limit.getPeriod();
+            }
+        }
+        return longest;
+    }
+
+}
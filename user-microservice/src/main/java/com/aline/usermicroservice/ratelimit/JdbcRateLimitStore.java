@@ -0,0 +1,58 @@
+package com.aline.usermicroservice.ratelimit;
+
+import com.aline.usermicroservice.config.RateLimitProperties;
+import com.aline.usermicroservice.model.RateLimitBucket;
+import com.aline.usermicroservice.repository.RateLimitBucketRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the buckets in the <code>rate_limit_bucket</code> table of
+ * the service database so the limits hold across replicas.
+ * <br/>
+ * Taking a token is one conditional update. The first request of a
+ * key inserts its bucket. Buckets that are full again are deleted every
+ * <code>app.rate-limit.cleanup-interval</code>.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.rate-limit", name = "store", havingValue = "jdbc")
+@RequiredArgsConstructor
+@Slf4j(topic = "JDBC Rate Limit Store")
+public class JdbcRateLimitStore implements RateLimitStore {
+
+    private final RateLimitBucketRepository repository;
+
+    @Override
+    public boolean tryConsume(String key, RateLimitProperties.Limit limit) {
+        long now = System.currentTimeMillis();
+        long period = limit.getPeriod().toMillis();
+        long interval = period / limit.getCapacity();
+
+        if (repository.tryConsume(key, now, interval, period) == 1)
+            return true;
+        if (repository.existsById(key))
+            return false;
+        try {
+            repository.saveAndFlush(RateLimitBucket.builder()
+                    .key(key)
+                    .fullAt(now + interval)
+                    .build());
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Another replica created the bucket first.
+            return repository.tryConsume(key, now, interval, period) == 1;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.cleanup-interval:600000}")
+    public void cleanUp() {
+        int deleted = repository.deleteAllFullBefore(System.currentTimeMillis());
+        if (deleted > 0)
+            log.debug("Deleted {} full rate limit bucket(s).", deleted);
+    }
+
+}
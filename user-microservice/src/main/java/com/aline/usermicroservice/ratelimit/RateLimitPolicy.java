@@ -0,0 +1,34 @@
+package com.aline.usermicroservice.ratelimit;
+
+import com.aline.usermicroservice.config.RateLimitProperties;
+
+import java.util.function.Function;
+
+/**
+ * The rate limited endpoints and where their limits are configured.
+ */
+public enum RateLimitPolicy {
+
+    REGISTRATION("registration", RateLimitProperties::getRegistration),
+    CONFIRMATION("confirmation", RateLimitProperties::getConfirmation),
+    OTP_REQUEST("otp-request", RateLimitProperties::getOtpRequest),
+    OTP_VERIFICATION("otp-verification", RateLimitProperties::getOtpVerification),
+    AVAILABILITY("availability", RateLimitProperties::getAvailability);
+
+    private final String name;
+    private final Function<RateLimitProperties, RateLimitProperties.Policy> policy;
+
+    RateLimitPolicy(String name, Function<RateLimitProperties, RateLimitProperties.Policy> policy) {
+        this.name = name;
+        this.policy = policy;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RateLimitProperties.Policy from(RateLimitProperties properties) {
+        return policy.apply(properties);
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.aline.usermicroservice.ratelimit;
+
+import com.aline.usermicroservice.config.RateLimitProperties;
+
+/**
+ * Keeps the token buckets of the {@link RateLimiter}.
+ * <br/>
+ * The implementation is selected with <code>app.rate-limit.store</code>.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Take a token from a bucket.
+     * @param key The key of the bucket.
+     * @param limit The limit of the bucket.
+     * @return False if the bucket is empty.
+     */
+    boolean tryConsume(String key, RateLimitProperties.Limit limit);
+
+}
@@ -0,0 +1,69 @@
+package com.aline.usermicroservice.ratelimit;
+
+import com.aline.usermicroservice.config.RateLimitProperties;
+import com.aline.usermicroservice.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Token bucket rate limiter of the public endpoints.
+ * <br/>
+ * Every request takes a token from the bucket of its client IP and
+ * from the bucket of each identity it names (ex. the username whose
+ * password is reset), so neither one client nor many clients going
+ * after one account can force unlimited hashing, SMS or email work.
+ * Controllers check the limits before calling any service, so a
+ * rejected request costs no database or hashing work.
+ * Rejections are counted by the <code>rate.limit.rejected</code> meter.
+ * <br/>
+ * The client IP is the remote address of the request. Behind a trusted
+ * proxy Tomcat resolves it from <code>X-Forwarded-For</code>
+ * (see <code>server.tomcat.remoteip</code>).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j(topic = "Rate Limiter")
+public class RateLimiter {
+
+    private final RateLimitProperties properties;
+    private final RateLimitStore store;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Take a token for a request.
+     * @param policy The endpoint the request is for.
+     * @param ip The IP address of the client.
+     * @param identities The usernames or membership IDs named by the request. Nulls are skipped.
+     * @throws TooManyRequestsException If the client or an identity is over its limit.
+     */
+    public void check(RateLimitPolicy policy, String ip, String... identities) {
+        if (!properties.isEnabled())
+            return;
+
+        RateLimitProperties.Policy limits = policy.from(properties);
+        if (limits.getIp() != null && !store.tryConsume(key(policy, "ip", ip), limits.getIp()))
+            reject(policy, "ip");
+
+        if (limits.getIdentity() == null)
+            return;
+        for (String identity : identities) {
+            if (identity != null && !store.tryConsume(key(policy, "id", identity.toLowerCase(Locale.ROOT)), limits.getIdentity()))
+                reject(policy, "identity");
+        }
+    }
+
+    private static String key(RateLimitPolicy policy, String type, String value) {
+        return policy.getName() + ":" + type + ":" + value;
+    }
+
+    private void reject(RateLimitPolicy policy, String keyType) {
+        meterRegistry.counter("rate.limit.rejected", "policy", policy.getName(), "key", keyType).increment();
+        log.debug("Rejected a {} request that was over its {} limit.", policy.getName(), keyType);
+        throw new TooManyRequestsException();
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.aline.usermicroservice.repository;
+
+import com.aline.core.model.user.UserAvatar;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.StreamUtils;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Reads avatar images as binary streams. Unlike loading a
+ * {@link UserAvatar} entity, the image is copied from the result
+ * set to the output without being materialized as a byte array.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AvatarBlobRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private String selectPic;
+
+    /**
+     * The avatar table is mapped in the core, so its names
+     * are read from the Hibernate mapping.
+     */
+    @PostConstruct
+    public void init() {
+        AbstractEntityPersister persister = (AbstractEntityPersister) entityManagerFactory
+                .unwrap(SessionFactoryImplementor.class)
+                .getMetamodel()
+                .entityPersister(UserAvatar.class);
+        selectPic = String.format("SELECT %s FROM %s WHERE %s = ?",
+                persister.getPropertyColumnNames("pic")[0],
+                persister.getTableName(),
+                persister.getIdentifierColumnNames()[0]);
+    }
+
+    /**
+     * Copy the avatar image of a user to an output stream.
+     * @param id The ID of the user.
+     * @param out The stream to write the image to.
+     * @return False if the user has no avatar.
+     */
+    public boolean copyTo(long id, OutputStream out) {
+        Boolean found = jdbcTemplate.query(selectPic, rs -> {
+            if (!rs.next())
+                return false;
+            try (InputStream in = rs.getBinaryStream(1)) {
+                StreamUtils.copy(in, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        }, id);
+        return Boolean.TRUE.equals(found);
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.aline.usermicroservice.repository;
+
+import com.aline.usermicroservice.model.AvatarMetadata;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AvatarMetadataRepository extends JpaRepository<AvatarMetadata, Long> {
+
+    long countByEtag(String etag);
+
+}
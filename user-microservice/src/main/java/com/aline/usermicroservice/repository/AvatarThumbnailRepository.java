@@ -0,0 +1,21 @@
+package com.aline.usermicroservice.repository;
+
+import com.aline.usermicroservice.model.AvatarThumbnail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AvatarThumbnailRepository extends JpaRepository<AvatarThumbnail, AvatarThumbnail.Key> {
+
+    List<AvatarThumbnail> findAllByUserId(long userId);
+
+    @Modifying
+    @Query("DELETE FROM AvatarThumbnail t WHERE t.userId = :userId")
+    int deleteAllByUserId(@Param("userId") long userId);
+
+}
@@ -0,0 +1,102 @@
+package com.aline.usermicroservice.repository;
+
+import com.aline.core.model.OneTimePasscode;
+import com.aline.core.model.user.UserRegistrationToken;
+import com.aline.usermicroservice.model.RegistrationConfirmation;
+import com.aline.usermicroservice.security.HashedOtp;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * Deletes expired registration tokens, one-time passcodes and
+ * signed registration confirmations in chunks of at most <code>limit</code> rows.
+ * <br/>
+ * JPQL has no <code>DELETE ... LIMIT</code>, so the statements are
+ * run through JDBC. Each statement commits on its own.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ExpiredCredentialRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private String deleteExpiredTokens;
+    private String deleteExpiredOtps;
+    private String deleteExpiredAndLegacyOtps;
+    private String deleteExpiredConfirmations;
+
+    /**
+     * The token and passcode tables are mapped in the core,
+     * so their names are read from the Hibernate mapping.
+     */
+    @PostConstruct
+    public void init() {
+        AbstractEntityPersister tokenPersister = persister(UserRegistrationToken.class);
+        deleteExpiredTokens = String.format("DELETE FROM %s WHERE %s < ? LIMIT ?",
+                tokenPersister.getTableName(),
+                tokenPersister.getPropertyColumnNames("expiration")[0]);
+
+        AbstractEntityPersister otpPersister = persister(OneTimePasscode.class);
+        String otpTable = otpPersister.getTableName();
+        String otpColumn = otpPersister.getPropertyColumnNames("otp")[0];
+        String expired = String.format("(%1$s LIKE '%2$s%%' AND %1$s < ?)", otpColumn, HashedOtp.prefix());
+        deleteExpiredOtps = String.format("DELETE FROM %s WHERE %s LIMIT ?", otpTable, expired);
+        deleteExpiredAndLegacyOtps = String.format("DELETE FROM %1$s WHERE %2$s OR %3$s NOT LIKE '%4$s%%' LIMIT ?",
+                otpTable, expired, otpColumn, HashedOtp.prefix());
+
+        AbstractEntityPersister confirmationPersister = persister(RegistrationConfirmation.class);
+        deleteExpiredConfirmations = String.format("DELETE FROM %s WHERE %s < ? LIMIT ?",
+                confirmationPersister.getTableName(),
+                confirmationPersister.getPropertyColumnNames("confirmedAt")[0]);
+    }
+
+    private AbstractEntityPersister persister(Class<?> entity) {
+        return (AbstractEntityPersister) entityManagerFactory
+                .unwrap(SessionFactoryImplementor.class)
+                .getMetamodel()
+                .entityPersister(entity);
+    }
+
+    /**
+     * Delete registration tokens that expired before the passed time.
+     * @param now The current time.
+     * @param limit The maximum number of tokens to delete.
+     * @return The number of tokens deleted.
+     */
+    public int deleteExpiredRegistrationTokens(LocalDateTime now, int limit) {
+        return jdbcTemplate.update(deleteExpiredTokens, Timestamp.valueOf(now), limit);
+    }
+
+    /**
+     * Delete one-time passcodes that expired before the passed time.
+     * @param now The current time.
+     * @param includeLegacy Also delete passcodes stored as BCrypt hashes.
+     * @param limit The maximum number of passcodes to delete.
+     * @return The number of passcodes deleted.
+     */
+    public int deleteExpiredOtps(Instant now, boolean includeLegacy, int limit) {
+        return jdbcTemplate.update(includeLegacy ? deleteExpiredAndLegacyOtps : deleteExpiredOtps,
+                HashedOtp.expiredBefore(now), limit);
+    }
+
+    /**
+     * Delete signed registration confirmations recorded before the passed time.
+     * @param confirmedBefore Confirmations older than this are deleted.
+     * @param limit The maximum number of confirmations to delete.
+     * @return The number of confirmations deleted.
+     */
+    public int deleteExpiredConfirmations(LocalDateTime confirmedBefore, int limit) {
+        return jdbcTemplate.update(deleteExpiredConfirmations, Timestamp.valueOf(confirmedBefore), limit);
+    }
+
+}
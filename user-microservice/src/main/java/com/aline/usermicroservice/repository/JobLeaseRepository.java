@@ -0,0 +1,43 @@
+package com.aline.usermicroservice.repository;
+
+import com.aline.usermicroservice.model.JobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+    /**
+     * Take a lease if it has run out or is already held by the owner.
+     * @param name The name of the job.
+     * @param owner The node taking the lease.
+     * @param now The current time.
+     * @param until When the lease runs out.
+     * @return 1 if the lease was taken.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE JobLease l SET l.owner = :owner, l.lockedUntil = :until " +
+            "WHERE l.name = :name AND (l.lockedUntil < :now OR l.owner = :owner)")
+    int claim(@Param("name") String name, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    /**
+     * Give a lease back so the next run does not have to wait for it to run out.
+     * @param name The name of the job.
+     * @param owner The node holding the lease.
+     * @param now The current time.
+     * @return 1 if the lease was released.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE JobLease l SET l.lockedUntil = :now WHERE l.name = :name AND l.owner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now);
+
+}
@@ -0,0 +1,26 @@
+package com.aline.usermicroservice.repository;
+
+import com.aline.core.model.user.MemberUser;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Read-only queries used when listing users.
+ */
+@org.springframework.stereotype.Repository
+public interface MemberUserListingRepository extends Repository<MemberUser, Long> {
+
+    /**
+     * Load member users together with their member and applicant
+     * in a single query.
+     * @param ids The IDs of the member users.
+     * @return The member users with the member and applicant initialized.
+     */
+    @Query("SELECT mu FROM MemberUser mu JOIN FETCH mu.member m JOIN FETCH m.applicant WHERE mu.id IN :ids")
+    List<MemberUser> findAllWithApplicantByIdIn(@Param("ids") Collection<Long> ids);
+
+}
@@ -0,0 +1,66 @@
+package com.aline.usermicroservice.repository;
+
+import com.aline.core.model.OneTimePasscode;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import javax.transaction.Transactional;
+import java.util.Optional;
+
+/**
+ * Compare-and-set updates of a stored one-time passcode.
+ * <br/>
+ * The stored value carries the failed attempt count (see
+ * {@link com.aline.usermicroservice.security.HashedOtp}), so every
+ * update is conditional on the value that was checked. An update
+ * that returns 0 means another attempt changed the passcode first.
+ */
+@org.springframework.stereotype.Repository
+public interface OneTimePasscodeAttemptRepository extends Repository<OneTimePasscode, Long> {
+
+    /**
+     * Read the stored value of a passcode from the database,
+     * bypassing the persistence context.
+     * @param id The ID of the passcode.
+     * @return The stored value or empty if the passcode was deleted.
+     */
+    @Query("SELECT o.otp FROM OneTimePasscode o WHERE o.id = :id")
+    Optional<String> findOtpById(@Param("id") long id);
+
+    /**
+     * Replace the stored value of a passcode if it is unchanged.
+     * @param id The ID of the passcode.
+     * @param current The stored value that was checked.
+     * @param next The new stored value.
+     * @return The number of passcodes updated.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OneTimePasscode o SET o.otp = :next WHERE o.id = :id AND o.otp = :current")
+    int replaceOtp(@Param("id") long id, @Param("current") String current, @Param("next") String next);
+
+    /**
+     * Mark a passcode as verified if it is unchanged.
+     * @param id The ID of the passcode.
+     * @param current The stored value that was checked.
+     * @return The number of passcodes updated.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OneTimePasscode o SET o.checked = true WHERE o.id = :id AND o.otp = :current")
+    int markChecked(@Param("id") long id, @Param("current") String current);
+
+    /**
+     * Delete a passcode if it is unchanged.
+     * @param id The ID of the passcode.
+     * @param current The stored value that was checked.
+     * @return The number of passcodes deleted.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OneTimePasscode o WHERE o.id = :id AND o.otp = :current")
+    int deleteOtp(@Param("id") long id, @Param("current") String current);
+
+}
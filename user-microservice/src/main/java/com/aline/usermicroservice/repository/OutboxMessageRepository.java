@@ -0,0 +1,49 @@
+package com.aline.usermicroservice.repository;
+
+import com.aline.usermicroservice.model.OutboxMessage;
+import com.aline.usermicroservice.model.OutboxMessageStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    /**
+     * Find the IDs of messages that are due for delivery.
+     * @param statuses The statuses that can be claimed.
+     * @param now The current time.
+     * @param pageable Limits the number of IDs returned.
+     * @return IDs of the due messages, oldest first.
+     */
+    @Query("SELECT m.id FROM OutboxMessage m WHERE m.status IN :statuses AND m.nextAttemptAt <= :now ORDER BY m.nextAttemptAt")
+    List<Long> findDueIds(@Param("statuses") Collection<OutboxMessageStatus> statuses,
+                          @Param("now") LocalDateTime now,
+                          Pageable pageable);
+
+    /**
+     * Claim a message for delivery. Only one dispatcher
+     * (across all replicas) can claim a message at a time.
+     * The version is bumped so the previous holder of an
+     * expired lease can no longer save the message.
+     * @return 1 if the message was claimed, 0 if someone else has it.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxMessage m SET m.status = :processing, m.nextAttemptAt = :leaseUntil, m.version = m.version + 1 " +
+            "WHERE m.id = :id AND m.status IN :statuses AND m.nextAttemptAt <= :now")
+    int claim(@Param("id") long id,
+              @Param("statuses") Collection<OutboxMessageStatus> statuses,
+              @Param("processing") OutboxMessageStatus processing,
+              @Param("now") LocalDateTime now,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+
+}
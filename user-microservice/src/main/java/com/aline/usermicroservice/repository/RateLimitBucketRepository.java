@@ -0,0 +1,36 @@
+package com.aline.usermicroservice.repository;
+
+import com.aline.usermicroservice.model.RateLimitBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.transaction.Transactional;
+
+@Repository
+public interface RateLimitBucketRepository extends JpaRepository<RateLimitBucket, String> {
+
+    /**
+     * Take a token from a bucket in one conditional update,
+     * so concurrent replicas cannot both take the last token.
+     * @param key The key of the bucket.
+     * @param now The current time in epoch milliseconds.
+     * @param interval The time it takes to refill one token in milliseconds.
+     * @param period The time it takes to refill the whole bucket in milliseconds.
+     * @return 1 if a token was taken, 0 if the bucket is empty or does not exist.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE rate_limit_bucket SET full_at = GREATEST(full_at, :now) + :interval " +
+            "WHERE bucket_key = :key AND GREATEST(full_at, :now) + :interval - :now <= :period", nativeQuery = true)
+    int tryConsume(@Param("key") String key, @Param("now") long now,
+                   @Param("interval") long interval, @Param("period") long period);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RateLimitBucket b WHERE b.fullAt < :before")
+    int deleteAllFullBefore(@Param("before") long before);
+
+}
@@ -0,0 +1,34 @@
+package com.aline.usermicroservice.repository;
+
+import com.aline.usermicroservice.model.RegistrationConfirmation;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+
+@org.springframework.stereotype.Repository
+public interface RegistrationConfirmationRepository extends Repository<RegistrationConfirmation, Long> {
+
+    /**
+     * Record a confirmation. A plain insert rather than a merge, so a
+     * second confirmation of the same user fails on the primary key.
+     * @param userId The ID of the confirmed user.
+     * @param confirmedAt When the registration was confirmed.
+     * @throws org.springframework.dao.DataIntegrityViolationException If the user was already confirmed.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO registration_confirmation (user_id, confirmed_at) VALUES (:userId, :confirmedAt)",
+            nativeQuery = true)
+    void insert(@Param("userId") long userId, @Param("confirmedAt") LocalDateTime confirmedAt);
+
+    /**
+     * @param userId The ID of the user.
+     * @return True if a confirmation is recorded for the user.
+     */
+    boolean existsById(Long userId);
+
+}
@@ -0,0 +1,25 @@
+package com.aline.usermicroservice.repository;
+
+import com.aline.core.model.user.User;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import javax.transaction.Transactional;
+
+@org.springframework.stereotype.Repository
+public interface UserActivationRepository extends Repository<User, Long> {
+
+    /**
+     * Enable a user without loading it. Only a disabled
+     * user is updated, so a token cannot enable a user twice.
+     * @param id The ID of the user.
+     * @return The number of users enabled.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.enabled = true WHERE u.id = :id AND u.enabled = false")
+    int enableIfDisabled(@Param("id") long id);
+
+}
@@ -0,0 +1,31 @@
+package com.aline.usermicroservice.repository;
+
+import com.aline.usermicroservice.model.UserCacheInvalidationEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserCacheInvalidationEventRepository extends JpaRepository<UserCacheInvalidationEvent, Long> {
+
+    @Query("SELECT MAX(e.id) FROM UserCacheInvalidationEvent e")
+    Optional<Long> findMaxId();
+
+    List<UserCacheInvalidationEvent> findAllByIdGreaterThanOrderByIdAsc(long id);
+
+    List<UserCacheInvalidationEvent> findAllByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UserCacheInvalidationEvent e WHERE e.created < :before")
+    int deleteAllCreatedBefore(@Param("before") LocalDateTime before);
+
+}
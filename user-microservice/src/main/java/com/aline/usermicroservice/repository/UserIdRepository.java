@@ -0,0 +1,21 @@
+package com.aline.usermicroservice.repository;
+
+import com.aline.core.model.user.User;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+@org.springframework.stereotype.Repository
+public interface UserIdRepository extends Repository<User, Long> {
+
+    /**
+     * Resolve the ID of a user without loading the entity.
+     * @param username The username of the user.
+     * @return The ID of the user if it exists.
+     */
+    @Query("SELECT u.id FROM User u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+
+}
@@ -0,0 +1,27 @@
+package com.aline.usermicroservice.repository;
+
+import com.aline.core.model.user.User;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import javax.transaction.Transactional;
+
+@org.springframework.stereotype.Repository
+public interface UserPasswordRepository extends Repository<User, Long> {
+
+    /**
+     * Replace the password hash of a user, unless the password was
+     * changed since the old hash was read.
+     * @param id The ID of the user.
+     * @param oldHash The password hash that was matched.
+     * @param newHash The new password hash.
+     * @return The number of users updated.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.id = :id AND u.password = :oldHash")
+    int replacePasswordHash(@Param("id") long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
+}
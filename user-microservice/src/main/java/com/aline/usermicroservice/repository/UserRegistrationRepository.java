@@ -0,0 +1,69 @@
+package com.aline.usermicroservice.repository;
+
+import com.aline.core.model.Member;
+import com.aline.core.model.user.User;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Queries used when registering users. The set based queries
+ * take the values of a whole batch so the number of statements
+ * does not grow with the number of registrations.
+ */
+@org.springframework.stereotype.Repository
+public interface UserRegistrationRepository extends Repository<User, Long> {
+
+    /**
+     * Find which of the passed usernames are taken.
+     * @param usernames The usernames to check.
+     * @return The usernames that belong to a user.
+     */
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * Find which of the passed emails are taken by an admin user.
+     * @param emails The emails to check.
+     * @return The emails that belong to an admin user.
+     */
+    @Query("SELECT a.email FROM AdminUser a WHERE a.email IN :emails")
+    List<String> findExistingAdminEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Find which of the passed memberships already have a member user.
+     * @param membershipIds The membership IDs to check.
+     * @return The membership IDs that are linked to a member user.
+     */
+    @Query("SELECT m.membershipId FROM MemberUser mu JOIN mu.member m WHERE m.membershipId IN :membershipIds")
+    List<String> findRegisteredMembershipIds(@Param("membershipIds") Collection<String> membershipIds);
+
+    /**
+     * Load members together with their applicant.
+     * @param membershipIds The membership IDs of the members.
+     * @return The members that exist with the applicant initialized.
+     */
+    @Query("SELECT m FROM Member m JOIN FETCH m.applicant WHERE m.membershipId IN :membershipIds")
+    List<Member> findMembersWithApplicant(@Param("membershipIds") Collection<String> membershipIds);
+
+    /**
+     * Load a member together with its applicant.
+     * @param membershipId The membership ID of the member.
+     * @return The member with the applicant initialized if it exists.
+     */
+    @Query("SELECT m FROM Member m JOIN FETCH m.applicant WHERE m.membershipId = :membershipId")
+    Optional<Member> findMemberWithApplicant(@Param("membershipId") String membershipId);
+
+    /**
+     * Load a member together with its applicant.
+     * @param id The ID of the member.
+     * @return The member with the applicant initialized if it exists.
+     */
+    @Query("SELECT m FROM Member m JOIN FETCH m.applicant WHERE m.id = :id")
+    Optional<Member> findMemberWithApplicantById(@Param("id") long id);
+
+}
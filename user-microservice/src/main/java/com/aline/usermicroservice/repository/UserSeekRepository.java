@@ -0,0 +1,50 @@
+package com.aline.usermicroservice.repository;
+
+import com.aline.core.model.user.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.List;
+
+/**
+ * Keyset (seek) queries over users. Instead of skipping
+ * <code>offset</code> rows, each query seeks past the last
+ * ID of the previous page using the primary key index, so
+ * every page costs the same no matter how deep it is.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserSeekRepository {
+
+    private final EntityManager entityManager;
+
+    /**
+     * Find the users matching the specification with an ID
+     * greater than <code>afterId</code>, ordered by ID.
+     * @param spec The search specification.
+     * @param afterId The ID of the last user of the previous page.
+     * @param limit The maximum number of users to return.
+     * @return Users ordered by ascending ID.
+     */
+    public List<User> findAllAfter(Specification<User> spec, long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<User> query = cb.createQuery(User.class);
+        Root<User> root = query.from(User.class);
+
+        Predicate seek = cb.greaterThan(root.get("id"), afterId);
+        Predicate search = spec.toPredicate(root, query, cb);
+        query.where(search == null ? seek : cb.and(search, seek));
+        query.orderBy(cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+}
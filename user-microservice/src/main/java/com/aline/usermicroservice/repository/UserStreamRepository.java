@@ -0,0 +1,75 @@
+package com.aline.usermicroservice.repository;
+
+import com.aline.core.model.user.User;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.stream.Stream;
+
+/**
+ * Forward-only streaming queries over users.
+ * <br/>
+ * The returned streams are backed by a JDBC cursor and
+ * must be consumed and closed inside a transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserStreamRepository {
+
+    private final EntityManager entityManager;
+
+    /**
+     * Stream every user matching the specification ordered by ID.
+     * @param spec The search specification.
+     * @param fetchSize The number of rows fetched from the database at a time.
+     * @return A forward-only stream of users.
+     */
+    public Stream<User> streamAll(Specification<User> spec, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<User> query = cb.createQuery(User.class);
+        Root<User> root = query.from(User.class);
+
+        Predicate search = spec.toPredicate(root, query, cb);
+        if (search != null)
+            query.where(search);
+        query.orderBy(cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream();
+    }
+
+    /**
+     * Stream the username of every user.
+     * @param fetchSize The number of rows fetched from the database at a time.
+     * @return A forward-only stream of usernames.
+     */
+    public Stream<String> streamUsernames(int fetchSize) {
+        return streamValues("SELECT u.username FROM User u", fetchSize);
+    }
+
+    /**
+     * Stream the email of every admin user.
+     * @param fetchSize The number of rows fetched from the database at a time.
+     * @return A forward-only stream of emails.
+     */
+    public Stream<String> streamAdminEmails(int fetchSize) {
+        return streamValues("SELECT a.email FROM AdminUser a", fetchSize);
+    }
+
+    private Stream<String> streamValues(String jpql, int fetchSize) {
+        return entityManager.createQuery(jpql, String.class)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream();
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.aline.usermicroservice.security;
+
+import com.aline.core.exception.BadRequestException;
+import com.aline.core.exception.gone.TokenExpiredException;
+import com.aline.core.exception.notfound.TokenNotFoundException;
+import com.aline.core.model.user.User;
+import com.aline.usermicroservice.config.ConfirmationTokenProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Issues and verifies stateless registration confirmation tokens.
+ * <br/>
+ * Format: <code>&lt;payload&gt;.&lt;mac&gt;</code>, both base64url encoded,
+ * where the payload is <code>c1:&lt;user ID&gt;:&lt;expires at (epoch seconds)&gt;:&lt;username&gt;</code>
+ * and the MAC is an HMAC-SHA256 of the payload. The token is verified
+ * without reading the database. It stays valid until it expires, but
+ * a user can only be confirmed once (see
+ * {@link com.aline.usermicroservice.model.RegistrationConfirmation}).
+ * <br/>
+ * The key is <code>app.confirmation-token.hmac-key</code> and is not
+ * shared with any other secret.
+ * <br/>
+ * UUID tokens never contain a <code>.</code>, so both kinds can be
+ * told apart (see {@link #isSigned(String)}).
+ */
+@Component
+public class ConfirmationTokenSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String VERSION = "c1";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final ConfirmationTokenProperties properties;
+    private final ThreadLocal<Mac> mac;
+
+    public ConfirmationTokenSigner(@Value("${app.confirmation-token.hmac-key}") String key,
+                                   ConfirmationTokenProperties properties) {
+        this.key = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.properties = properties;
+        this.mac = ThreadLocal.withInitial(this::createMac);
+    }
+
+    /**
+     * @param token A confirmation token.
+     * @return True if the token is a signed token rather than a UUID.
+     */
+    public static boolean isSigned(String token) {
+        return token.indexOf('.') >= 0;
+    }
+
+    /**
+     * Sign a new confirmation token for a user.
+     * @param user The user to confirm.
+     * @return The token.
+     */
+    public String sign(User user) {
+        long expiresAt = Instant.now().plus(properties.getTtl()).getEpochSecond();
+        String payload = String.join(":", VERSION, Long.toString(user.getId()), Long.toString(expiresAt), user.getUsername());
+        byte[] encoded = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(encoded) + "." + ENCODER.encodeToString(sign(encoded));
+    }
+
+    /**
+     * Verify a signed token.
+     * @param token The token.
+     * @return The claims of the token.
+     * @throws BadRequestException If the token is malformed.
+     * @throws TokenNotFoundException If the signature does not match.
+     * @throws TokenExpiredException If the token is expired.
+     */
+    public SignedConfirmationToken verify(String token) {
+        String[] parts = token.split("\\.", -1);
+        if (parts.length != 2)
+            throw new BadRequestException("Token format is invalid.");
+
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = DECODER.decode(parts[0]);
+            signature = DECODER.decode(parts[1]);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Token format is invalid.");
+        }
+        if (!MessageDigest.isEqual(sign(payload), signature))
+            throw new TokenNotFoundException();
+
+        String[] claims = new String(payload, StandardCharsets.UTF_8).split(":", 4);
+        if (claims.length != 4 || !VERSION.equals(claims[0]))
+            throw new BadRequestException("Token format is invalid.");
+        SignedConfirmationToken confirmation;
+        try {
+            confirmation = new SignedConfirmationToken(Long.parseLong(claims[1]), claims[3], Long.parseLong(claims[2]));
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Token format is invalid.");
+        }
+        if (confirmation.isExpired())
+            throw new TokenExpiredException();
+        return confirmation;
+    }
+
+    private byte[] sign(byte[] payload) {
+        return mac.get().doFinal(payload);
+    }
+
+    private Mac createMac() {
+        try {
+            Mac instance = Mac.getInstance(ALGORITHM);
+            instance.init(key);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize the confirmation token HMAC.", e);
+        }
+    }
+
+}
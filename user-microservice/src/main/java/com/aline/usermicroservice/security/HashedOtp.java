@@ -0,0 +1,74 @@
+package com.aline.usermicroservice.security;
+
+import lombok.Value;
+import org.springframework.lang.Nullable;
+
+import java.time.Instant;
+
+/**
+ * A one-time passcode as stored in the <code>otp</code> column.
+ * <br/>
+ * Format: <code>hmac1$&lt;expires at (epoch seconds)&gt;$&lt;failed attempts&gt;$&lt;mac&gt;</code>.
+ * The expiry is part of the MAC input so it cannot be extended.
+ * Rows written before this format are BCrypt hashes and do not parse.
+ */
+@Value
+public class HashedOtp {
+
+    private static final String VERSION = "hmac1";
+
+    long expiresAt;
+    int attempts;
+    String mac;
+
+    /**
+     * Parse a stored OTP.
+     * @param stored The value of the otp column.
+     * @return The parsed OTP or null if it is a legacy BCrypt hash.
+     */
+    @Nullable
+    public static HashedOtp parse(String stored) {
+        if (stored == null || !stored.startsWith(VERSION + "$"))
+            return null;
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4)
+            return null;
+        try {
+            return new HashedOtp(Long.parseLong(parts[1]), Integer.parseInt(parts[2]), parts[3]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The start of every OTP stored in this format.
+     * Used to tell them apart from legacy hashes in queries.
+     * @return The version prefix.
+     */
+    public static String prefix() {
+        return VERSION + "$";
+    }
+
+    /**
+     * Stored OTPs that sort before the returned value expired before the
+     * passed time. Epoch seconds have 10 digits until 2286, so they sort as text.
+     * @param time The time to compare the expiry with.
+     * @return The value to compare stored OTPs with.
+     */
+    public static String expiredBefore(Instant time) {
+        return prefix() + time.getEpochSecond() + "$";
+    }
+
+    public String format() {
+        return String.join("$", VERSION, Long.toString(expiresAt), Integer.toString(attempts), mac);
+    }
+
+    public boolean isExpired() {
+        return Instant.now().getEpochSecond() >= expiresAt;
+    }
+
+    public HashedOtp withFailedAttempt() {
+        return new HashedOtp(expiresAt, attempts + 1, mac);
+    }
+
+}
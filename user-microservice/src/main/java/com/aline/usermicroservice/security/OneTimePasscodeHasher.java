@@ -0,0 +1,85 @@
+package com.aline.usermicroservice.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Hashes one-time passcodes with a server-keyed HMAC-SHA256.
+ * <br/>
+ * A 6-digit passcode has a keyspace of 10^6, so a slow hash
+ * like BCrypt does not protect it if the table leaks. A keyed
+ * HMAC does as long as the key stays secret, and it costs
+ * microseconds instead of hundreds of milliseconds. Brute force
+ * through the API is stopped by the attempt limit instead.
+ * The MAC binds the passcode to the user and its expiry.
+ * <br/>
+ * The key is <code>app.otp.hmac-key</code>. It is not shared with
+ * any other secret, so rotating it only invalidates pending passcodes.
+ */
+@Component
+public class OneTimePasscodeHasher {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final ThreadLocal<Mac> mac;
+
+    public OneTimePasscodeHasher(@Value("${app.otp.hmac-key}") String key,
+                                 @Value("${app.otp.ttl:10m}") Duration ttl) {
+        this.key = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.ttl = ttl;
+        this.mac = ThreadLocal.withInitial(this::createMac);
+    }
+
+    /**
+     * Hash a new passcode for a user.
+     * @param otp The plain passcode.
+     * @param userId The ID of the user the passcode is for.
+     * @return The passcode in its stored format.
+     */
+    public HashedOtp hash(String otp, long userId) {
+        long expiresAt = Instant.now().plus(ttl).getEpochSecond();
+        return new HashedOtp(expiresAt, 0, sign(otp, userId, expiresAt));
+    }
+
+    /**
+     * Check a passcode against a stored one in constant time.
+     * Does not check the expiry or attempts.
+     * @param otp The plain passcode.
+     * @param userId The ID of the user the passcode is for.
+     * @param hashed The stored passcode.
+     * @return True if the passcode matches.
+     */
+    public boolean matches(String otp, long userId, HashedOtp hashed) {
+        byte[] expected = hashed.getMac().getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = sign(otp, userId, hashed.getExpiresAt()).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    private String sign(String otp, long userId, long expiresAt) {
+        String message = userId + ":" + expiresAt + ":" + otp;
+        byte[] digest = mac.get().doFinal(message.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+
+    private Mac createMac() {
+        try {
+            Mac instance = Mac.getInstance(ALGORITHM);
+            instance.init(key);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize the OTP HMAC.", e);
+        }
+    }
+
+}
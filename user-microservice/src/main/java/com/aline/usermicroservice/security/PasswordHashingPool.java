@@ -0,0 +1,231 @@
+package com.aline.usermicroservice.security;
+
+import com.aline.usermicroservice.config.PasswordHashingProperties;
+import com.aline.usermicroservice.exception.TooManyRequestsException;
+import com.aline.usermicroservice.metrics.RequestMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded thread pool that runs every password hash.
+ * <br/>
+ * At most <code>app.password-hashing.workers</code> hashes run at
+ * once so BCrypt cannot starve the other endpoints of CPU. When the
+ * queue is full, new hashes are rejected with a {@link TooManyRequestsException}.
+ * Queue depth, active workers, rejections and hash durations are
+ * published as <code>password.hashing.*</code> meters. The time a
+ * request waits for its hashes is added to its {@link RequestMetrics}.
+ */
+@Component
+@Slf4j(topic = "Password Hashing Pool")
+public class PasswordHashingPool {
+
+    private static final String THREAD_PREFIX = "password-hashing-";
+
+    private final PasswordHashingProperties properties;
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final Counter rejected;
+    private final int strength;
+
+    public PasswordHashingPool(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+                properties.getWorkers(), properties.getWorkers(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, THREAD_PREFIX + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        Gauge.builder("password.hashing.queue.size", executor, e -> e.getQueue().size())
+                .description("Password hashes waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashes running")
+                .register(meterRegistry);
+        rejected = Counter.builder("password.hashing.rejected")
+                .description("Password hashes rejected because the pool was saturated")
+                .register(meterRegistry);
+
+        strength = properties.getTargetLatency() != null
+                ? calibrate(properties.getTargetLatency())
+                : properties.getStrength();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * The BCrypt work factor for new hashes.
+     * @return The work factor or 0 to keep the core encoder's.
+     */
+    public int getStrength() {
+        return strength;
+    }
+
+    public boolean isRehashOnLogin() {
+        return properties.isRehashOnLogin();
+    }
+
+    /**
+     * Run a hashing operation on the pool and wait for its result.
+     * @param operation The name of the operation (used as a metric tag).
+     * @param task The hashing task.
+     * @return The result of the task.
+     * @throws TooManyRequestsException If the pool is saturated.
+     */
+    public <T> T call(String operation, Callable<T> task) {
+        Timer timer = timer(operation);
+
+        // Nested hashing from a worker would wait on itself.
+        if (isWorker())
+            return callInline(timer, task);
+
+        long start = System.nanoTime();
+        try {
+            return await(submit(timer, task));
+        } finally {
+            RequestMetrics.recordDependency(RequestMetrics.Dependency.PASSWORD_ENCODER, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Run many hashing operations on the pool and wait for all of their results.
+     * <br/>
+     * Tasks are submitted in windows of <code>app.password-hashing.workers</code>
+     * so they run in parallel without filling the queue, and hashes submitted
+     * by other requests are interleaved between the windows.
+     * @param operation The name of the operation (used as a metric tag).
+     * @param tasks The hashing tasks.
+     * @return The results of the tasks in the order of the tasks.
+     * @throws TooManyRequestsException If the pool is saturated.
+     */
+    public <T> List<T> callAll(String operation, List<Callable<T>> tasks) {
+        Timer timer = timer(operation);
+        List<T> results = new ArrayList<>(tasks.size());
+
+        if (isWorker()) {
+            for (Callable<T> task : tasks)
+                results.add(callInline(timer, task));
+            return results;
+        }
+
+        long start = System.nanoTime();
+        int window = properties.getWorkers();
+        try {
+            for (int from = 0; from < tasks.size(); from += window) {
+                List<Future<T>> futures = new ArrayList<>(window);
+                try {
+                    for (Callable<T> task : tasks.subList(from, Math.min(from + window, tasks.size())))
+                        futures.add(submit(timer, task));
+                    for (Future<T> future : futures)
+                        results.add(await(future));
+                } finally {
+                    futures.forEach(future -> future.cancel(true));
+                }
+            }
+        } finally {
+            RequestMetrics.recordDependency(RequestMetrics.Dependency.PASSWORD_ENCODER, System.nanoTime() - start);
+        }
+        return results;
+    }
+
+    private Timer timer(String operation) {
+        return Timer.builder("password.hashing.duration")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private static boolean isWorker() {
+        return Thread.currentThread().getName().startsWith(THREAD_PREFIX);
+    }
+
+    private <T> Future<T> submit(Timer timer, Callable<T> task) {
+        try {
+            return executor.submit(() -> timer.recordCallable(task));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new TooManyRequestsException("The service is busy. Please try again later.");
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(properties.getMaxWait().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new TooManyRequestsException("The service is busy. Please try again later.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static <T> T callInline(Timer timer, Callable<T> task) {
+        try {
+            return timer.recordCallable(task);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Find the highest BCrypt work factor that hashes within the target latency.
+     * The configured <code>strength</code> is a floor, and the
+     * {@link PooledPasswordEncoder} never goes below the core work factor.
+     * @param targetLatency The target latency of a single hash.
+     * @return The calibrated work factor.
+     */
+    private int calibrate(Duration targetLatency) {
+        int floor = Math.max(properties.getMinStrength(), properties.getStrength());
+        int chosen = floor;
+        // Warm up so the first measurement is not skewed by class loading and JIT.
+        new BCryptPasswordEncoder(floor).encode("calibration");
+        for (int cost = floor + 1; cost <= properties.getMaxStrength(); cost++) {
+            long start = System.nanoTime();
+            new BCryptPasswordEncoder(cost).encode("calibration");
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            log.info("BCrypt work factor {} took {} ms.", cost, elapsed.toMillis());
+            if (elapsed.compareTo(targetLatency) > 0)
+                break;
+            chosen = cost;
+        }
+        log.info("Calibrated BCrypt work factor to {} for a target latency of {} ms.", chosen, targetLatency.toMillis());
+        return chosen;
+    }
+
+}
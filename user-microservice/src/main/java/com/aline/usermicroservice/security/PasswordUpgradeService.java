@@ -0,0 +1,35 @@
+package com.aline.usermicroservice.security;
+
+import com.aline.usermicroservice.repository.UserIdRepository;
+import com.aline.usermicroservice.repository.UserPasswordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stores the rehashed password of a user after a successful login.
+ * <br/>
+ * The authentication provider asks {@link PooledPasswordEncoder#upgradeEncoding(String)}
+ * once the password matched and, if the work factor is outdated, encodes
+ * the raw password and calls this service with the new hash. The hash is
+ * only replaced if the user still has the hash that was matched.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j(topic = "Password Upgrade Service")
+public class PasswordUpgradeService implements UserDetailsPasswordService {
+
+    private final UserIdRepository userIdRepository;
+    private final UserPasswordRepository passwordRepository;
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userIdRepository.findIdByUsername(user.getUsername())
+                .filter(id -> passwordRepository.replacePasswordHash(id, user.getPassword(), newPassword) > 0)
+                .ifPresent(id -> log.info("Rehashed the password of user {} with the current work factor.", id));
+        return user;
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.aline.usermicroservice.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Decorates the core {@link PasswordEncoder} so every encode and
+ * match runs on the {@link PasswordHashingPool}.
+ * <br/>
+ * If the core encoder is a {@link BCryptPasswordEncoder} and a work
+ * factor is configured, new hashes use that work factor, unless it is
+ * lower than the core's (the core's is kept, so a misconfiguration or
+ * a slow node cannot weaken new hashes). Hashes with a lower work
+ * factor are rehashed after a successful login (see {@link PasswordUpgradeService}).
+ * <br/>
+ * The pool is resolved lazily because password encoders are created
+ * very early in the context.
+ */
+@Slf4j(topic = "Pooled Password Encoder")
+public class PooledPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ObjectProvider<PasswordHashingPool> poolProvider;
+
+    private volatile PasswordEncoder encoder;
+
+    public PooledPasswordEncoder(PasswordEncoder delegate, ObjectProvider<PasswordHashingPool> poolProvider) {
+        this.delegate = delegate;
+        this.poolProvider = poolProvider;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return poolProvider.getObject().call("encode", () -> encoder().encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return poolProvider.getObject().call("matches", () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Only asked by the authentication provider after a successful login.
+     * @param encodedPassword The stored hash.
+     * @return True if the hash has an outdated work factor and should be replaced.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return poolProvider.getObject().isRehashOnLogin() && encoder().upgradeEncoding(encodedPassword);
+    }
+
+    private PasswordEncoder encoder() {
+        if (encoder == null) {
+            int strength = poolProvider.getObject().getStrength();
+            if (strength > 0 && delegate instanceof BCryptPasswordEncoder) {
+                int coreStrength = workFactor(delegate.encode("work factor"));
+                if (strength < coreStrength) {
+                    log.warn("The work factor {} is lower than the core work factor {}. Keeping the core work factor.",
+                            strength, coreStrength);
+                    encoder = delegate;
+                } else {
+                    encoder = new BCryptPasswordEncoder(strength);
+                }
+            } else {
+                if (strength > 0)
+                    log.warn("A work factor is configured but the core password encoder is not BCrypt. Keeping the core work factor.");
+                encoder = delegate;
+            }
+        }
+        return encoder;
+    }
+
+    /**
+     * @param hash A BCrypt hash, ex. <code>$2a$10$...</code>.
+     * @return Its work factor.
+     */
+    private static int workFactor(String hash) {
+        return Integer.parseInt(hash.substring(4, 6));
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.aline.usermicroservice.security;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * The claims of a verified signed registration confirmation
+ * token (see {@link ConfirmationTokenSigner}).
+ */
+@Value
+public class SignedConfirmationToken {
+
+    long userId;
+    String username;
+    long expiresAt;
+
+    public boolean isExpired() {
+        return Instant.now().getEpochSecond() >= expiresAt;
+    }
+
+}
@@ -1,57 +1,342 @@
 package com.aline.usermicroservice.service;
 
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDateTime;
 import java.util.Base64;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.stream.Collectors;
 
 import javax.annotation.security.PermitAll;
 import javax.imageio.ImageIO;
+import javax.transaction.Transactional;
 import javax.xml.bind.DatatypeConverter;
 
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.bind.annotation.PostMapping;
 
 import com.aline.core.dto.request.UserAvatarRequest;
+import com.aline.core.exception.BadRequestException;
+import com.aline.core.exception.NotFoundException;
 import com.aline.core.model.user.UserAvatar;
 import com.aline.core.repository.ApplicantRepository;
 import com.aline.core.repository.AvatarRepository;
+import com.aline.usermicroservice.cache.UserCache;
+import com.aline.usermicroservice.config.AvatarProperties;
+import com.aline.usermicroservice.model.AvatarMetadata;
+import com.aline.usermicroservice.model.AvatarThumbnail;
+import com.aline.usermicroservice.repository.AvatarMetadataRepository;
+import com.aline.usermicroservice.repository.AvatarThumbnailRepository;
+import com.aline.usermicroservice.service.avatar.AvatarImageProcessor;
+import com.aline.usermicroservice.service.avatar.AvatarStore;
+import com.aline.usermicroservice.service.avatar.ProcessedAvatar;
 
 import lombok.RequiredArgsConstructor;
 
+/**
+ * Stores and serves user avatars.
+ * <br/>
+ * Avatars are served as binary images through {@link #copyAvatarTo(AvatarMetadata, OutputStream)}
+ * with the {@link AvatarMetadata} describing them. The data URI methods remain
+ * for clients of the JSON avatar endpoints.
+ * <br/>
+ * Uploads are normalized by the {@link AvatarImageProcessor} and stored
+ * with a thumbnail for every size in <code>app.avatar.thumbnail-sizes</code>.
+ * Full size images are kept in the configured {@link AvatarStore}.
+ */
 @Service
 @RequiredArgsConstructor
 public class AvatarService {
 
 	private final AvatarRepository avatarRepository;
+	private final AvatarMetadataRepository metadataRepository;
+	private final AvatarStore avatarStore;
+	private final AvatarThumbnailRepository thumbnailRepository;
+	private final AvatarImageProcessor imageProcessor;
+	private final AvatarProperties properties;
+	private final UserCache userCache;
 
+	/**
+	 * Store the avatar image of a user from a base64 data URI.
+	 * @param id The ID of the user.
+	 * @param image The data URI of the image.
+	 * @throws BadRequestException If the data URI is malformed or the image is rejected.
+	 */
+	@Transactional(rollbackOn = BadRequestException.class)
 	@PreAuthorize("@authService.canAccess(#id)")
 	public void putAvatar(long id, UserAvatarRequest image) {
+		if (image.getPic() == null)
+			throw new BadRequestException("Avatar image is empty.");
+		storeAvatar(id, decodeDataUri(image.getPic()), contentTypeOfDataUri(image.getPic()));
+	}
+
+	/**
+	 * Store the avatar image of a user.
+	 * @param id The ID of the user.
+	 * @param image The encoded image.
+	 * @param contentType The media type of the image. Must be an <code>image/*</code> type.
+	 * @return The metadata of the stored avatar.
+	 * @throws BadRequestException If the image is empty, too large, not an image type or cannot be decoded.
+	 */
+	@Transactional(rollbackOn = BadRequestException.class)
+	@PreAuthorize("@authService.canAccess(#id)")
+	public AvatarMetadata putAvatar(long id, byte[] image, @Nullable String contentType) {
+		return storeAvatar(id, image, contentType);
+	}
+
+	private AvatarMetadata storeAvatar(long id, byte[] image, @Nullable String contentType) {
+		checkImageType(contentType);
+		if (image.length == 0)
+			throw new BadRequestException("Avatar image is empty.");
+		if (image.length > properties.getMaxSize().toBytes())
+			throw new BadRequestException(String.format("Avatar image cannot be larger than %d bytes.", properties.getMaxSize().toBytes()));
+
+		ProcessedAvatar processed = imageProcessor.process(image);
+		AvatarMetadata metadata = describe(id, processed.getImage(), processed.getContentType());
+		Optional<String> previous = metadataRepository.findById(id).map(AvatarMetadata::getEtag);
+
+		avatarStore.put(id, metadata.getEtag(), processed.getImage());
+		metadata = metadataRepository.save(metadata);
+		saveThumbnails(id, processed);
+		userCache.evict(id);
+
+		String digest = metadata.getEtag();
+		previous.filter(previousDigest -> !previousDigest.equals(digest))
+				.ifPresent(previousDigest -> deleteUnreferencedAfterCommit(id, previousDigest));
+		return metadata;
+	}
+
+	/**
+	 * Images may be shared by users in a content addressed store,
+	 * so an image is only deleted when no avatar refers to it anymore.
+	 */
+	private void deleteUnreferencedAfterCommit(long id, String digest) {
+		Runnable delete = () -> {
+			if (metadataRepository.countByEtag(digest) == 0)
+				avatarStore.delete(id, digest);
+		};
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					delete.run();
+				}
+			});
+		} else {
+			delete.run();
+		}
+	}
+
+	private void saveThumbnails(long id, ProcessedAvatar processed) {
+		thumbnailRepository.deleteAllByUserId(id);
+		LocalDateTime now = LocalDateTime.now();
+		thumbnailRepository.saveAll(processed.getThumbnails().entrySet().stream()
+				.map(thumbnail -> AvatarThumbnail.builder()
+						.userId(id)
+						.size(thumbnail.getKey())
+						.contentType(processed.getContentType())
+						.etag(sha256(thumbnail.getValue()))
+						.image(thumbnail.getValue())
+						.updated(now)
+						.build())
+				.collect(Collectors.toList()));
+	}
+
+	private static void checkImageType(@Nullable String contentType) {
 		try {
-			String base64 = image.getPic().split(",")[1];
-			byte[] imageArray = Base64.getDecoder().decode(base64);
-			UserAvatar blackImage = new UserAvatar(id, imageArray);
-			avatarRepository.save(blackImage);
-		} catch (Exception e) {
-			e.printStackTrace();
+			MediaType mediaType = MediaType.parseMediaType(contentType);
+			if (mediaType.getType().equals("image") && mediaType.isConcrete())
+				return;
+		} catch (IllegalArgumentException e) {
+			// Handled below
 		}
+		throw new BadRequestException(String.format("Avatar content type '%s' is not an image type.", contentType));
 	}
 
-	@PermitAll
+	@PreAuthorize("@authService.canAccess(#id)")
 	public UserAvatarRequest getAvatar(long id) {
-		UserAvatar imageModel = avatarRepository.findById(id).orElseThrow();
-		String base64 = "data:image/png;base64," + Base64.getEncoder().encodeToString(imageModel.getPic());
-		UserAvatarRequest image = new UserAvatarRequest(base64);
-		return image;
+		return getAvatar(getAvatarMetadata(id));
+	}
+
+	/**
+	 * Get the avatar described by already loaded metadata as a data URI.
+	 * @param metadata The metadata of the avatar.
+	 * @return The avatar as a data URI.
+	 */
+	@PermitAll
+	public UserAvatarRequest getAvatar(AvatarMetadata metadata) {
+		String base64 = encodeDataUri(readAvatar(metadata), metadata.getContentType());
+		return new UserAvatarRequest(base64);
+	}
+
+	/**
+	 * Get the metadata of the avatar of a user.
+	 * Avatars stored before metadata was kept are described on first read.
+	 * @param id The ID of the user.
+	 * @return The metadata of the avatar.
+	 * @throws NotFoundException If the user has no avatar.
+	 */
+	@Transactional
+	@PreAuthorize("@authService.canAccess(#id)")
+	public AvatarMetadata getAvatarMetadata(long id) {
+		return metadataRepository.findById(id).orElseGet(() -> importAvatar(avatarRepository.findById(id)
+				.orElseThrow(() -> new NotFoundException("Avatar not found."))));
+	}
+
+	/**
+	 * Copy an avatar from the database blob it was stored as before
+	 * metadata was kept into the {@link AvatarStore}, and describe it.
+	 * @param avatar The avatar in the database.
+	 * @return The metadata of the avatar.
+	 */
+	@Transactional
+	public AvatarMetadata importAvatar(UserAvatar avatar) {
+		long id = avatar.getId();
+		AvatarMetadata metadata = metadataRepository.findById(id)
+				// Avatars were always served as PNG data URIs.
+				.orElseGet(() -> describe(id, avatar.getPic(), MediaType.IMAGE_PNG_VALUE));
+		if (!avatarStore.exists(id, metadata.getEtag()))
+			avatarStore.put(id, metadata.getEtag(), avatar.getPic());
+		return metadataRepository.save(metadata);
+	}
+
+	/**
+	 * Get the thumbnail of a user avatar that best fits a requested size.
+	 * That is the smallest thumbnail at least as large as the requested size.
+	 * Avatars stored before thumbnails were rendered are rendered once on first read.
+	 * @param id The ID of the user.
+	 * @param size The requested width in pixels.
+	 * @return The thumbnail, or empty if the requested size is larger than every
+	 * thumbnail and the full size avatar should be served instead.
+	 * @throws NotFoundException If the user has no avatar.
+	 */
+	@Transactional
+	@PreAuthorize("@authService.canAccess(#id)")
+	public Optional<AvatarThumbnail> getThumbnail(long id, int size) {
+		OptionalInt thumbnailSize = properties.getThumbnailSizes().stream()
+				.mapToInt(Integer::intValue)
+				.filter(available -> available >= size)
+				.min();
+		if (!thumbnailSize.isPresent())
+			return Optional.empty();
+
+		AvatarThumbnail.Key key = new AvatarThumbnail.Key(id, thumbnailSize.getAsInt());
+		Optional<AvatarThumbnail> thumbnail = thumbnailRepository.findById(key);
+		if (thumbnail.isPresent())
+			return thumbnail;
+
+		saveThumbnails(id, imageProcessor.process(readAvatar(getAvatarMetadata(id))));
+		return thumbnailRepository.findById(key);
+	}
+
+	/**
+	 * Copy the avatar image of a user to an output stream.
+	 * @param metadata The metadata of the avatar.
+	 * @param out The stream to write the image to.
+	 * @throws NotFoundException If the image is missing from the store.
+	 * @throws IOException If the image could not be read or written.
+	 */
+	@PermitAll
+	public void copyAvatarTo(AvatarMetadata metadata, OutputStream out) throws IOException {
+		if (!avatarStore.copyTo(metadata.getUserId(), metadata.getEtag(), out))
+			throw new NotFoundException("Avatar not found.");
+	}
+
+	private byte[] readAvatar(AvatarMetadata metadata) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream((int) metadata.getContentLength());
+		try {
+			copyAvatarTo(metadata, out);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return out.toByteArray();
+	}
+
+	private static AvatarMetadata describe(long id, byte[] image, String contentType) {
+		return AvatarMetadata.builder()
+				.userId(id)
+				.contentType(contentType)
+				.contentLength(image.length)
+				.etag(sha256(image))
+				.updated(LocalDateTime.now())
+				.build();
+	}
+
+	private static String sha256(byte[] bytes) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+			return String.format("%064x", new BigInteger(1, digest));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Decode the image bytes of a base64 data URI.
+	 * @param dataUri A data URI such as <code>data:image/png;base64,...</code>
+	 * @return The decoded image.
+	 */
+	public static byte[] decodeDataUri(String dataUri) {
+		int comma = dataUri.indexOf(',');
+		if (comma < 0)
+			throw new BadRequestException("Avatar image is not a data URI.");
+		try {
+			return Base64.getDecoder().decode(dataUri.substring(comma + 1));
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException("Avatar image is not valid base64.");
+		}
+	}
+
+	/**
+	 * Get the media type of a base64 data URI.
+	 * @param dataUri A data URI such as <code>data:image/png;base64,...</code>
+	 * @return The media type of the data. Defaults to <code>image/png</code>.
+	 */
+	public static String contentTypeOfDataUri(String dataUri) {
+		int end = dataUri.indexOf(';');
+		if (!dataUri.startsWith("data:") || end < 0)
+			return MediaType.IMAGE_PNG_VALUE;
+		return dataUri.substring("data:".length(), end);
+	}
+
+	/**
+	 * Encode PNG image bytes as a base64 data URI.
+	 * @param pic The image.
+	 * @return The data URI of the image.
+	 */
+	public static String encodeDataUri(byte[] pic) {
+		return encodeDataUri(pic, MediaType.IMAGE_PNG_VALUE);
+	}
+
+	/**
+	 * Encode image bytes as a base64 data URI.
+	 * @param pic The image.
+	 * @param contentType The media type of the image.
+	 * @return The data URI of the image.
+	 */
+	public static String encodeDataUri(byte[] pic, String contentType) {
+		return "data:" + contentType + ";base64," + Base64.getEncoder().encodeToString(pic);
 	}
-}
\ No newline at end of file
+}
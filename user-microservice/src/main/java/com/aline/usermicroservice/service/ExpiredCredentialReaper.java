@@ -0,0 +1,162 @@
+package com.aline.usermicroservice.service;
+
+import com.aline.usermicroservice.config.ConfirmationTokenProperties;
+import com.aline.usermicroservice.config.ReaperProperties;
+import com.aline.usermicroservice.model.JobLease;
+import com.aline.usermicroservice.repository.ExpiredCredentialRepository;
+import com.aline.usermicroservice.repository.JobLeaseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.IntSupplier;
+
+/**
+ * Deletes expired registration tokens, one-time passcodes and
+ * signed registration confirmations.
+ * <br/>
+ * Without it, tokens are only deleted when they are confirmed
+ * and passcodes when the user requests a new one or resets their
+ * password, so both tables grow without bound. A confirmation only
+ * has to outlive the signed tokens issued before it, so it is
+ * deleted once <code>app.confirmation-token.ttl</code> has passed.
+ * <br/>
+ * Rows are deleted in chunks of <code>app.reaper.chunk-size</code>, each
+ * in its own transaction, so locks are only held briefly. A run is
+ * reserved through the <code>job_lease</code> table, so only one replica
+ * reaps at a time. Deleted rows are counted by the
+ * <code>credential.reaper.deleted</code> meter.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.reaper", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j(topic = "Expired Credential Reaper")
+public class ExpiredCredentialReaper {
+
+    static final String JOB_NAME = "expired-credential-reaper";
+
+    private final ExpiredCredentialRepository repository;
+    private final JobLeaseRepository leaseRepository;
+    private final ReaperProperties properties;
+    private final ConfirmationTokenProperties tokenProperties;
+    private final Counter tokensDeleted;
+    private final Counter otpsDeleted;
+    private final Counter confirmationsDeleted;
+    private final Timer runDuration;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public ExpiredCredentialReaper(ExpiredCredentialRepository repository,
+                                   JobLeaseRepository leaseRepository,
+                                   ReaperProperties properties,
+                                   ConfirmationTokenProperties tokenProperties,
+                                   MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.leaseRepository = leaseRepository;
+        this.properties = properties;
+        this.tokenProperties = tokenProperties;
+        tokensDeleted = Counter.builder("credential.reaper.deleted")
+                .description("Expired credentials deleted by the reaper")
+                .tag("type", "registration_token")
+                .register(meterRegistry);
+        otpsDeleted = Counter.builder("credential.reaper.deleted")
+                .description("Expired credentials deleted by the reaper")
+                .tag("type", "otp")
+                .register(meterRegistry);
+        confirmationsDeleted = Counter.builder("credential.reaper.deleted")
+                .description("Expired credentials deleted by the reaper")
+                .tag("type", "registration_confirmation")
+                .register(meterRegistry);
+        runDuration = Timer.builder("credential.reaper.duration")
+                .description("Duration of reaper runs")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.reaper.interval:300000}", initialDelayString = "${app.reaper.interval:300000}")
+    public void reap() {
+        if (!claimLease())
+            return;
+        try {
+            runDuration.record(this::reapChunks);
+        } finally {
+            leaseRepository.release(JOB_NAME, nodeId, LocalDateTime.now());
+        }
+    }
+
+    private void reapChunks() {
+        Instant deadline = Instant.now().plus(properties.getLease().dividedBy(2));
+
+        int tokens = deleteInChunks(deadline, () ->
+                repository.deleteExpiredRegistrationTokens(LocalDateTime.now(), properties.getChunkSize()));
+        tokensDeleted.increment(tokens);
+
+        int otps = deleteInChunks(deadline, () ->
+                repository.deleteExpiredOtps(Instant.now(), properties.isReapLegacyOtps(), properties.getChunkSize()));
+        otpsDeleted.increment(otps);
+
+        int confirmations = deleteInChunks(deadline, () ->
+                repository.deleteExpiredConfirmations(LocalDateTime.now().minus(tokenProperties.getTtl()), properties.getChunkSize()));
+        confirmationsDeleted.increment(confirmations);
+
+        if (tokens > 0 || otps > 0 || confirmations > 0)
+            log.info("Deleted {} expired registration token(s), {} expired OTP(s) and {} expired confirmation(s).",
+                    tokens, otps, confirmations);
+    }
+
+    /**
+     * Run a chunked delete until a chunk comes back short or the deadline passes.
+     * @param deadline When to stop even if rows are left. The next run continues.
+     * @param deleteChunk Deletes one chunk and returns the number of rows deleted.
+     * @return The total number of rows deleted.
+     */
+    private int deleteInChunks(Instant deadline, IntSupplier deleteChunk) {
+        int total = 0;
+        while (true) {
+            int deleted = deleteChunk.getAsInt();
+            total += deleted;
+            if (deleted < properties.getChunkSize() || Instant.now().isAfter(deadline))
+                return total;
+            if (!pause(properties.getChunkPause()))
+                return total;
+        }
+    }
+
+    private static boolean pause(Duration pause) {
+        try {
+            Thread.sleep(pause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean claimLease() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(properties.getLease());
+        if (leaseRepository.claim(JOB_NAME, nodeId, now, until) == 1)
+            return true;
+        if (leaseRepository.existsById(JOB_NAME))
+            return false;
+        try {
+            leaseRepository.saveAndFlush(JobLease.builder()
+                    .name(JOB_NAME)
+                    .owner(nodeId)
+                    .lockedUntil(until)
+                    .build());
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Another node created the lease first.
+            return false;
+        }
+    }
+
+}
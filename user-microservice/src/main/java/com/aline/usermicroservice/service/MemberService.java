@@ -3,6 +3,8 @@ package com.aline.usermicroservice.service;
 import com.aline.core.exception.notfound.MemberNotFoundException;
 import com.aline.core.model.Member;
 import com.aline.core.repository.MemberRepository;
+import com.aline.usermicroservice.cache.MemberCache;
+import com.aline.usermicroservice.repository.UserRegistrationRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -14,6 +16,8 @@ import org.springframework.stereotype.Service;
 public class MemberService {
 
     private final MemberRepository repository;
+    private final UserRegistrationRepository registrationRepository;
+    private final MemberCache memberCache;
 
     /**
      * Get member by their membership ID
@@ -24,8 +28,42 @@ public class MemberService {
         return repository.findByMembershipId(membershipId).orElseThrow(MemberNotFoundException::new);
     }
 
+    /**
+     * Get a member and its applicant by their membership ID if the
+     * last four digits of the applicant's SSN match.
+     * <br/>
+     * Memberships are cached in the {@link MemberCache}, so an attempt
+     * with the wrong digits for a cached membership is rejected without
+     * a query. Otherwise the member is loaded with its applicant in one query.
+     * @param membershipId The membership ID of the member.
+     * @param lastFourOfSSN The last four digits of the applicant's SSN.
+     * @return The member with its applicant initialized.
+     * @throws MemberNotFoundException If the member does not exist or the digits do not match.
+     */
+    public Member getVerifiedMember(String membershipId, String lastFourOfSSN) {
+        MemberCache.Entry cached = memberCache.get(membershipId);
+        if (cached != null && !cached.matches(lastFourOfSSN))
+            throw new MemberNotFoundException();
+
+        Member member = null;
+        if (cached != null) {
+            member = registrationRepository.findMemberWithApplicantById(cached.getMemberId())
+                    .filter(found -> membershipId.equals(found.getMembershipId()))
+                    .orElse(null);
+        }
+        if (member == null) {
+            member = registrationRepository.findMemberWithApplicant(membershipId)
+                    .orElseThrow(MemberNotFoundException::new);
+        }
+
+        if (!memberCache.put(member).matches(lastFourOfSSN))
+            throw new MemberNotFoundException();
+        return member;
+    }
+
     // Save member
     public void saveMember(Member member) {
         repository.save(member);
+        memberCache.evict(member.getMembershipId());
     }
 }
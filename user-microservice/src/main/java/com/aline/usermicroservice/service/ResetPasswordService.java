@@ -1,12 +1,11 @@
 package com.aline.usermicroservice.service;
 
-import com.aline.core.aws.email.EmailService;
-import com.aline.core.aws.sms.SMSService;
 import com.aline.core.aws.sms.SMSType;
 import com.aline.core.config.AppConfig;
 import com.aline.core.dto.request.ResetPasswordAuthentication;
 import com.aline.core.dto.request.ResetPasswordRequest;
 import com.aline.core.exception.UnprocessableException;
+import com.aline.core.exception.gone.TokenExpiredException;
 import com.aline.core.exception.notfound.TokenNotFoundException;
 import com.aline.core.exception.notfound.UserNotFoundException;
 import com.aline.core.exception.unauthorized.IncorrectOTPException;
@@ -17,9 +16,15 @@ import com.aline.core.model.user.User;
 import com.aline.core.repository.OneTimePasscodeRepository;
 import com.aline.core.repository.UserRepository;
 import com.aline.core.util.RandomNumberGenerator;
+import com.aline.usermicroservice.cache.UserCache;
+import com.aline.usermicroservice.repository.OneTimePasscodeAttemptRepository;
+import com.aline.usermicroservice.security.HashedOtp;
+import com.aline.usermicroservice.security.OneTimePasscodeHasher;
 import com.aline.usermicroservice.service.function.HandleOtpBeforeHash;
+import com.aline.usermicroservice.service.outbox.OutboxService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.lang.Nullable;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -35,14 +40,23 @@ import java.util.Map;
 @Slf4j(topic = "Reset Password Service")
 public class ResetPasswordService {
 
+    private static final String OTP_EMAIL_SUBJECT = "Password Reset";
+    private static final String OTP_EMAIL_TEMPLATE = "user/password-reset";
+    private static final int MAX_ATTEMPT_RETRIES = 3;
+
     private final PasswordEncoder passwordEncoder;
     private final OneTimePasscodeRepository repository;
     private final UserRepository userRepository;
     private final RandomNumberGenerator rng;
-    private final SMSService smsService;
-    private final EmailService emailService;
+    private final OutboxService outboxService;
+    private final UserCache userCache;
+    private final OneTimePasscodeHasher otpHasher;
+    private final OneTimePasscodeAttemptRepository attemptRepository;
     private final AppConfig appConfig;
 
+    @Value("${app.otp.max-attempts:5}")
+    private int maxOtpAttempts;
+
     @Transactional(rollbackOn = {
             UserNotFoundException.class,
             UnprocessableException.class
@@ -68,12 +82,13 @@ public class ResetPasswordService {
 
     /**
      * Create a OneTimePasscode entity.
+     * The passcode is stored as a keyed HMAC with an expiry (see {@link HashedOtp}).
      * @param otpStr The One-Time Passcode string
      * @param user The user to attach it to.
      */
     public void createOneTimePasscode(String otpStr, User user) {
         log.info("Hashing OTP for password reset...");
-        String hashedOtp = passwordEncoder.encode(otpStr);
+        String hashedOtp = otpHasher.hash(otpStr, user.getId()).format();
         OneTimePasscode otp = OneTimePasscode.builder()
                 .otp(hashedOtp)
                 .user(user)
@@ -88,18 +103,94 @@ public class ResetPasswordService {
     public void verifyOtp(String otp, String username) {
         OneTimePasscode otpEntity = repository.findByUserUsername(username)
                         .orElseThrow(IncorrectOTPException::new);
-        if(!passwordEncoder.matches(otp, otpEntity.getOtp()))
+        String checked = checkOtp(otpEntity, otp);
+        // A concurrent attempt changed the passcode after it was checked.
+        if (attemptRepository.markChecked(otpEntity.getId(), checked) == 0)
             throw new IncorrectOTPException();
-        otpEntity.setChecked(true);
-        repository.save(otpEntity);
     }
 
     /**
-     * Send OTP message to a user.
+     * Check a passcode against the stored one.
+     * <br/>
+     * A failed attempt is recorded on the stored passcode with a
+     * conditional update, so parallel guesses cannot all record the
+     * same count. An attempt that loses the race reads the passcode
+     * again and records itself on top. If the passcode cannot be
+     * read back changed, it is deleted instead. Once
+     * <code>app.otp.max-attempts</code> is reached, or the passcode
+     * has expired, it is deleted. Passcodes stored as BCrypt hashes
+     * before the HMAC format was introduced are still accepted.
+     * @param otpEntity The stored passcode.
+     * @param otp The passcode sent by the user.
+     * @return The stored value that matched.
+     * @throws IncorrectOTPException If the passcode does not match.
+     * @throws TokenExpiredException If the passcode has expired.
+     */
+    private String checkOtp(OneTimePasscode otpEntity, String otp) {
+        long id = otpEntity.getId();
+        String stored = otpEntity.getOtp();
+
+        for (int retry = 0; ; retry++) {
+            HashedOtp hashed = HashedOtp.parse(stored);
+
+            if (hashed == null) {
+                if (!passwordEncoder.matches(otp, stored))
+                    throw new IncorrectOTPException();
+                return stored;
+            }
+
+            if (hashed.isExpired()) {
+                attemptRepository.deleteOtp(id, stored);
+                throw new TokenExpiredException();
+            }
+
+            if (hashed.getAttempts() < maxOtpAttempts && otpHasher.matches(otp, otpEntity.getUser().getId(), hashed))
+                return stored;
+
+            HashedOtp failed = hashed.withFailedAttempt();
+            int recorded;
+            if (failed.getAttempts() >= maxOtpAttempts) {
+                log.info("Maximum OTP attempts reached. Deleting OTP.");
+                recorded = attemptRepository.deleteOtp(id, stored);
+            } else {
+                recorded = attemptRepository.replaceOtp(id, stored, failed.format());
+            }
+            if (recorded == 1)
+                throw new IncorrectOTPException();
+
+            String latest = attemptRepository.findOtpById(id).orElse(null);
+            if (latest == null)
+                throw new IncorrectOTPException();
+            if (latest.equals(stored) || retry >= MAX_ATTEMPT_RETRIES) {
+                log.info("Unable to record a failed OTP attempt. Deleting OTP.");
+                repository.deleteById(id);
+                throw new IncorrectOTPException();
+            }
+            stored = latest;
+        }
+    }
+
+    /**
+     * Queue an OTP message to a user in the outbox.
+     * The message is sent once the current transaction commits.
      * @param otp The OTP generated.
      * @param user The user being sent the OTP.
      */
-    public void sendOTPMessage(String otp, User user) {
+    public void queueOTPMessage(String otp, User user) {
+        outboxService.queueSMSMessage(getPhoneNumber(user), otpMessage(otp), SMSType.TRANSACTIONAL);
+    }
+
+    /**
+     * Queue an OTP email to a user in the outbox.
+     * The email is sent once the current transaction commits.
+     * @param otp The OTP generated.
+     * @param user The user being sent the OTP.
+     */
+    public void queueOTPEmail(String otp, User user) {
+        outboxService.queueHtmlEmail(OTP_EMAIL_SUBJECT, OTP_EMAIL_TEMPLATE, getEmail(user), otpEmailVariables(otp));
+    }
+
+    private String getPhoneNumber(User user) {
 
         String phoneNumber = null;
 
@@ -118,16 +209,10 @@ public class ResetPasswordService {
             throw new UnprocessableException("No phone number was found to send this SMS message to.");
         }
 
-        String message = String.format("Here is your password reset one-time passcode: %s", otp);
-        smsService.sendSMSMessage(phoneNumber, message, SMSType.TRANSACTIONAL);
+        return phoneNumber;
     }
 
-    /**
-     * Send OTP email to a user.
-     * @param otp The OTP generated.
-     * @param user The user being sent the OTP.
-     */
-    public void sendOTPEmail(String otp, User user) {
+    private String getEmail(User user) {
 
         String email = null;
 
@@ -147,13 +232,19 @@ public class ResetPasswordService {
             throw new UnprocessableException("No email was found to send this message to.");
         }
 
-        final String template = "user/password-reset";
+        return email;
+    }
+
+    private String otpMessage(String otp) {
+        return String.format("Here is your password reset one-time passcode: %s", otp);
+    }
+
+    private Map<String, String> otpEmailVariables(String otp) {
         final String landingPortalUrl = appConfig.getLandingPortal();
         final Map<String, String> variables = new HashMap<>();
         variables.put("landingPortalUrl", landingPortalUrl);
         variables.put("otp", otp);
-
-        emailService.sendHtmlEmail("Password Reset", template, email, variables);
+        return variables;
     }
 
     /**
@@ -164,6 +255,10 @@ public class ResetPasswordService {
             UserNotFoundException.class,
             TokenNotFoundException.class,
             DataIntegrityViolationException.class
+    }, dontRollbackOn = {
+            // Keep the recorded failed OTP attempt
+            IncorrectOTPException.class,
+            TokenExpiredException.class
     })
     public void resetPassword(@Valid ResetPasswordRequest request) {
         User user = userRepository.findByUsername(request.getUsername())
@@ -177,14 +272,16 @@ public class ResetPasswordService {
         if (passwordEncoder.matches(request.getNewPassword(), user.getPassword()))
             throw new UnprocessableException("New password cannot be the same as your old password.");
 
-        if (!passwordEncoder.matches(request.getOtp(), otp.getOtp()))
-            throw new IncorrectOTPException();
+        String checked = checkOtp(otp, request.getOtp());
+        // Consume the passcode once, even if the same request is sent twice.
+        if (attemptRepository.deleteOtp(otp.getId(), checked) == 0)
+            throw new TokenNotFoundException();
 
         String hashedNewOtp = passwordEncoder.encode(request.getNewPassword());
         user.setPassword(hashedNewOtp);
 
-        repository.deleteById(otp.getId());
         userRepository.save(user);
+        userCache.evict(user.getId(), user.getUsername());
     }
 
 }
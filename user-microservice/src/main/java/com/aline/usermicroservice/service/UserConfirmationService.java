@@ -12,9 +12,18 @@ import com.aline.core.model.user.MemberUser;
 import com.aline.core.model.user.User;
 import com.aline.core.model.user.UserRegistrationToken;
 import com.aline.core.repository.UserRegistrationTokenRepository;
+import com.aline.core.repository.UserRepository;
+import com.aline.usermicroservice.cache.UserCache;
+import com.aline.usermicroservice.config.ConfirmationTokenProperties;
+import com.aline.usermicroservice.repository.RegistrationConfirmationRepository;
+import com.aline.usermicroservice.repository.UserActivationRepository;
+import com.aline.usermicroservice.security.ConfirmationTokenSigner;
+import com.aline.usermicroservice.security.SignedConfirmationToken;
+import com.aline.usermicroservice.service.outbox.OutboxService;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import javax.transaction.Transactional;
@@ -28,10 +37,19 @@ import java.util.UUID;
 @Slf4j(topic = "User Confirmation Service")
 public class UserConfirmationService {
 
+    private static final String CONFIRMATION_TEMPLATE = "user/confirm-registration";
+
     private final AppConfig appConfig;
     private final UserService userService;
     private final EmailService emailService;
+    private final OutboxService outboxService;
     private final UserRegistrationTokenRepository repository;
+    private final ConfirmationTokenProperties tokenProperties;
+    private final ConfirmationTokenSigner tokenSigner;
+    private final UserActivationRepository activationRepository;
+    private final RegistrationConfirmationRepository confirmationRepository;
+    private final UserRepository userRepository;
+    private final UserCache userCache;
 
     /**
      * Create a user registration token for a user.
@@ -46,6 +64,61 @@ public class UserConfirmationService {
         return repository.save(token);
     }
 
+    /**
+     * Confirm a registration with a token of either kind.
+     * <br/>
+     * A signed token (see {@link ConfirmationTokenSigner}) is verified
+     * without reading the database. Its confirmation is recorded with an
+     * insert that fails on a replay, then the user is enabled with a
+     * conditional update. A UUID token is looked up in the token table.
+     * @param token The token from the confirmation link.
+     * @return The confirmation response.
+     */
+    @Transactional(rollbackOn = {
+            UserNotFoundException.class,
+            UnprocessableException.class
+    })
+    public ConfirmUserRegistrationResponse confirmRegistration(@NonNull String token) {
+        if (ConfirmationTokenSigner.isSigned(token))
+            return confirmRegistration(tokenSigner.verify(token));
+        return confirmRegistration(getTokenById(token));
+    }
+
+    /**
+     * Confirm a registration with a verified signed token.
+     * <br/>
+     * A user can be confirmed once. The confirmation is recorded before
+     * the user is enabled, so a link replayed after the profile was
+     * disabled is refused. The user is only read when it cannot be
+     * enabled, to tell why.
+     * @param token The claims of the token.
+     * @return The confirmation response.
+     */
+    @Transactional(rollbackOn = {
+            UserNotFoundException.class,
+            UnprocessableException.class
+    })
+    public ConfirmUserRegistrationResponse confirmRegistration(@NonNull SignedConfirmationToken token) {
+        log.info("Confirming signed registration token of user {}.", token.getUserId());
+        try {
+            confirmationRepository.insert(token.getUserId(), LocalDateTime.now());
+        } catch (DataIntegrityViolationException e) {
+            throw new UnprocessableException("This registration has already been confirmed.");
+        }
+        if (activationRepository.enableIfDisabled(token.getUserId()) == 0) {
+            if (!userRepository.existsById(token.getUserId()))
+                throw new UserNotFoundException();
+            throw new UnprocessableException("Cannot enable a user that is already enabled.");
+        }
+        userCache.evict(token.getUserId(), token.getUsername());
+
+        return ConfirmUserRegistrationResponse.builder()
+                .username(token.getUsername())
+                .confirmedAt(LocalDateTime.now())
+                .enabled(true)
+                .build();
+    }
+
     /**
      * Confirm registration and delete the token.
      * @param token The token to access the user.
@@ -101,22 +174,46 @@ public class UserConfirmationService {
      * @param user The user to create and send a confirmation email to.
      */
     public void sendMemberUserConfirmationEmail(MemberUser user) {
+        final String subject = confirmationEmailSubject(user);
+        final String email = user.getMember().getApplicant().getEmail();
+        final Map<String, String> variables = confirmationEmailVariables(user);
+
+        emailService.sendHtmlEmail(subject, CONFIRMATION_TEMPLATE, email, variables);
+    }
 
-        final String username = user.getUsername();
-        final String subject = String.format("We Need Your Confirmation, %s", username);
-        final String template = "user/confirm-registration";
+    /**
+     * Create the registration token and queue the confirmation email
+     * in the outbox. The email is sent by the outbox dispatcher once
+     * the current transaction commits.
+     * @param user The user to create and queue a confirmation email for.
+     */
+    @Transactional
+    public void queueMemberUserConfirmationEmail(MemberUser user) {
+        final String subject = confirmationEmailSubject(user);
         final String email = user.getMember().getApplicant().getEmail();
+        final Map<String, String> variables = confirmationEmailVariables(user);
+
+        outboxService.queueHtmlEmail(subject, CONFIRMATION_TEMPLATE, email, variables);
+    }
+
+    private String confirmationEmailSubject(MemberUser user) {
+        return String.format("We Need Your Confirmation, %s", user.getUsername());
+    }
+
+    // Creates the registration token that the confirmation link points to.
+    // Signed tokens are not stored, so nothing is written for them.
+    private Map<String, String> confirmationEmailVariables(MemberUser user) {
         final String memberDashboardUrl = appConfig.getMemberDashboard();
         final String landingPortalUrl = appConfig.getLandingPortal();
-        final String token = createRegistrationToken(user).getToken().toString();
+        final String token = tokenProperties.isSigned()
+                ? tokenSigner.sign(user)
+                : createRegistrationToken(user).getToken().toString();
         final String confirmationLink = String.format("%s/confirmation?token=%s", memberDashboardUrl, token);
 
         final Map<String, String> variables = new HashMap<>();
         variables.put("landingPortalUrl", landingPortalUrl);
         variables.put("confirmationLink", confirmationLink);
-
-        emailService.sendHtmlEmail(subject, template, email, variables);
+        return variables;
     }
 
 }
-
@@ -0,0 +1,35 @@
+package com.aline.usermicroservice.service;
+
+import com.aline.core.exception.BadRequestException;
+
+/**
+ * Formats supported by the user export.
+ */
+public enum UserExportFormat {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String contentType;
+
+    UserExportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Parse a format from a request parameter.
+     * @param format The case-insensitive name of the format.
+     * @return The matching format.
+     * @throws BadRequestException If the format is not supported.
+     */
+    public static UserExportFormat fromString(String format) {
+        for (UserExportFormat value : values()) {
+            if (value.name().equalsIgnoreCase(format))
+                return value;
+        }
+        throw new BadRequestException(String.format("Export format '%s' is not supported.", format));
+    }
+}
@@ -0,0 +1,134 @@
+package com.aline.usermicroservice.service;
+
+import com.aline.core.dto.response.UserResponse;
+import com.aline.core.model.user.User;
+import com.aline.core.util.SimpleSearchSpecification;
+import com.aline.usermicroservice.repository.UserStreamRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Streams users as NDJSON or CSV.
+ * <br/>
+ * Users are read with a forward-only cursor and written in
+ * chunks. After each chunk the persistence context is cleared
+ * so memory stays constant no matter how many users match.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j(topic = "User Export Service")
+public class UserExportService {
+
+    private static final String[] CSV_COLUMNS = {
+            "id", "username", "firstName", "lastName", "email", "role", "enabled", "memberId", "membershipId"
+    };
+
+    private final UserService userService;
+    private final UserStreamRepository streamRepository;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.export.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * Create a response body that streams every user matching the search.
+     * <br/>
+     * Authorization is checked here, on the request thread. The returned
+     * body runs later on an async thread inside its own read-only transaction.
+     * @param search The search term.
+     * @param format The format to write the users in.
+     * @return A streaming response body.
+     */
+    @PreAuthorize("hasAnyAuthority(@roles.admin, @roles.employee)")
+    public StreamingResponseBody exportUsers(String search, UserExportFormat format) {
+        SimpleSearchSpecification<User> spec = new SimpleSearchSpecification<>(search);
+        return outputStream -> {
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.setReadOnly(true);
+            template.executeWithoutResult(status -> {
+                try (Stream<User> users = streamRepository.streamAll(spec, chunkSize)) {
+                    writeUsers(users.iterator(), outputStream, format);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+    }
+
+    private void writeUsers(Iterator<User> users, OutputStream outputStream, UserExportFormat format) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        ObjectWriter jsonWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+
+        if (format == UserExportFormat.CSV)
+            writer.write(String.join(",", CSV_COLUMNS) + "\n");
+
+        long count = 0;
+        List<User> chunk = new ArrayList<>(chunkSize);
+        while (users.hasNext()) {
+            chunk.add(users.next());
+            if (chunk.size() == chunkSize || !users.hasNext()) {
+                userService.prefetchMembers(chunk);
+                for (User user : chunk) {
+                    UserResponse response = userService.mapToDto(user);
+                    if (format == UserExportFormat.CSV)
+                        writeCsvRow(writer, response);
+                    else
+                        writer.write(jsonWriter.writeValueAsString(response) + "\n");
+                }
+                count += chunk.size();
+                chunk.clear();
+                writer.flush();
+                // Detach the written users so the persistence context does not grow.
+                entityManager.clear();
+            }
+        }
+        writer.flush();
+        log.info("Exported {} user(s) as {}.", count, format);
+    }
+
+    private void writeCsvRow(Writer writer, UserResponse response) throws IOException {
+        Map<?, ?> values = objectMapper.convertValue(response, Map.class);
+        StringBuilder row = new StringBuilder();
+        for (int i = 0; i < CSV_COLUMNS.length; i++) {
+            if (i > 0)
+                row.append(',');
+            row.append(escapeCsv(values.get(CSV_COLUMNS[i])));
+        }
+        writer.write(row.append('\n').toString());
+    }
+
+    private static String escapeCsv(Object value) {
+        if (value == null)
+            return "";
+        String str = value.toString();
+        if (str.indexOf(',') < 0 && str.indexOf('"') < 0 && str.indexOf('\n') < 0 && str.indexOf('\r') < 0)
+            return str;
+        return '"' + str.replace("\"", "\"\"") + '"';
+    }
+
+}
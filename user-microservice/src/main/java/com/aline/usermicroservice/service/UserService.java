@@ -8,9 +8,12 @@ import com.aline.core.dto.response.ContactInfo;
 import com.aline.core.dto.response.PaginatedResponse;
 import com.aline.core.dto.response.UserProfile;
 import com.aline.core.dto.response.UserResponse;
+import com.aline.core.exception.BadRequestException;
+import com.aline.core.exception.ConflictException;
 import com.aline.core.exception.NotFoundException;
 import com.aline.core.exception.UnauthorizedException;
 import com.aline.core.exception.UnprocessableException;
+import com.aline.core.exception.conflict.UsernameConflictException;
 import com.aline.core.exception.notfound.UserNotFoundException;
 import com.aline.core.model.Applicant;
 import com.aline.core.model.Member;
@@ -22,27 +25,60 @@ import com.aline.core.repository.ApplicantRepository;
 import com.aline.core.repository.MemberRepository;
 import com.aline.core.repository.UserRepository;
 import com.aline.core.util.SimpleSearchSpecification;
+import com.aline.usermicroservice.authorization.UserAuthorization;
+import com.aline.usermicroservice.cache.UserCache;
+import com.aline.usermicroservice.cache.UserExistenceFilter;
+import com.aline.usermicroservice.dto.response.BulkRegistrationResponse;
+import com.aline.usermicroservice.dto.response.BulkRegistrationResult;
+import com.aline.usermicroservice.dto.response.CursorPaginatedResponse;
+import com.aline.usermicroservice.dto.response.UsernameAvailability;
+import com.aline.usermicroservice.repository.MemberUserListingRepository;
+import com.aline.usermicroservice.repository.UserIdRepository;
+import com.aline.usermicroservice.repository.UserSeekRepository;
+import com.aline.usermicroservice.security.PasswordHashingPool;
 import com.aline.usermicroservice.service.function.UserRegistrationConsumer;
+import com.aline.usermicroservice.service.mapping.UserResponseMapper;
+import com.aline.usermicroservice.service.registration.UniqueConstraintTranslator;
 import com.aline.usermicroservice.service.registration.UserRegistrationHandler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
+import org.hibernate.Hibernate;
 import org.modelmapper.ModelMapper;
-import org.modelmapper.TypeMap;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.lang.Nullable;
 import org.springframework.security.access.prepost.PostAuthorize;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.security.PermitAll;
 import javax.transaction.Transactional;
+import javax.validation.ConstraintViolation;
 import javax.validation.Valid;
+import javax.validation.Validator;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -61,88 +97,226 @@ import java.util.stream.Collectors;
 @SuppressWarnings({"rawtypes", "unchecked"})
 public class UserService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 2000;
+
     private final UserRepository repository;
+    private final MemberUserListingRepository memberUserListingRepository;
+    private final UserSeekRepository userSeekRepository;
+    private final UserIdRepository userIdRepository;
     private final MemberService memberService;
     private final ApplicantService applicantService;
-    private final ModelMapper modelMapper;
+    private final UserCache userCache;
+    private final UserExistenceFilter existenceFilter;
+    private final UserAuthorization authService;
+    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingPool hashingPool;
+    private final UniqueConstraintTranslator constraintTranslator;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
 
     // Retrieve a list of UserRegistrationHandler implementations
     private final List<UserRegistrationHandler> handlers;
     private Map<Class<? extends UserRegistration>, UserRegistrationHandler> handlerMap;
 
+    // Retrieve a list of UserResponseMapper implementations
+    private final List<UserResponseMapper> mappers;
+    private Map<Class<? extends User>, UserResponseMapper> mapperMap;
+
     /**
      * Initialize the class after injection.
      * This method converts the list of UserRegistrationHandler implementations
      * into a map with the UserRegistration implementation as the key.
      *
      * This will be used when registering the user.
+     *
+     * The list of UserResponseMapper implementations is converted the same
+     * way with the User entity implementation as the key. This will be used
+     * when mapping a user to a UserResponse.
      */
     @PostConstruct
     public void init() {
         handlerMap = handlers.stream()
                 .collect(Collectors.toMap(UserRegistrationHandler::registersAs, Function.identity()));
+        mapperMap = mappers.stream()
+                .collect(Collectors.toMap(UserResponseMapper::maps, Function.identity()));
     }
 
     /**
      * Get a user by ID.
+     * <br/>
+     * The mapped response is served from the {@link UserCache} when present.
      * @param id The ID to query.
      * @return A UserResponse of the queried user.
      */
 	@PreAuthorize("permitAll()")
 	@PostAuthorize("@authService.canAccess(returnObject)")
     public UserResponse getUserById(Long id) {
-        return mapToDto(repository.findById(id).orElseThrow(UserNotFoundException::new));
+        return loadResponse(id);
+    }
+
+    private UserResponse loadResponse(long id) {
+        UserResponse cached = userCache.getResponse(id);
+        if (cached != null)
+            return cached;
+        User user = repository.findById(id).orElseThrow(UserNotFoundException::new);
+        prefetchMembers(Collections.singletonList(user));
+        UserResponse response = mapToDto(user);
+        userCache.putResponse(response);
+        return response;
+    }
+
+    /**
+     * Get many users by ID at once.
+     * <br/>
+     * Users that are not cached are loaded with one <code>IN</code> query and
+     * their members and applicants with one fetch join query, no matter how
+     * many IDs are passed. Like {@link #getUserById(Long)}, every user is
+     * checked with {@link UserAuthorization#canAccess(UserResponse)}, but users
+     * that cannot be accessed are left out instead of failing the whole call.
+     * @param ids The IDs of the users. Duplicates are ignored.
+     * @return The accessible users that exist, in the order of their first ID.
+     */
+    @Transactional
+    @PreAuthorize("isAuthenticated()")
+    public List<UserResponse> getUsersByIds(List<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        Map<Long, UserResponse> found = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : requested) {
+            UserResponse cached = userCache.getResponse(id);
+            if (cached != null)
+                found.put(id, cached);
+            else
+                misses.add(id);
+        }
+
+        if (!misses.isEmpty()) {
+            List<User> users = repository.findAllById(misses);
+            prefetchMembers(users);
+            for (User user : users) {
+                UserResponse response = mapToDto(user);
+                userCache.putResponse(response);
+                found.put(response.getId(), response);
+            }
+        }
+
+        return requested.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .filter(authService::canAccess)
+                .collect(Collectors.toList());
     }
 
     /**
      * Returns a paginated response of all users.
+     * <br/>
+     * The members and applicants of the member users on the page
+     * are loaded with a single fetch join query before mapping, so
+     * the number of statements per page does not grow with the page size.
      * @param pageable Pageable passed in from controller.
      * @param search The search term.
      * @return A paginated response of UserResponse DTOs.
      */
+    @Transactional
     @PreAuthorize("hasAnyAuthority(@roles.admin, @roles.employee)")
     public PaginatedResponse<UserResponse> getAllUsers(Pageable pageable, String search) {
         SimpleSearchSpecification<User> spec = new SimpleSearchSpecification<>(search);
         Page<User> usersPage = repository.findAll(spec, pageable);
+        prefetchMembers(usersPage.getContent());
         Page<UserResponse> userResponsePage = usersPage.map(this::mapToDto);
         return new PaginatedResponse<>(userResponsePage.getContent(), pageable, userResponsePage.getTotalElements());
     }
 
     /**
-     * Helper method to map a user to a user response.
+     * Returns a page of users that comes after the passed cursor.
      * <br/>
-     * If the user has a role of MEMBER then it will
-     * reach into the MemberUser's linked applicant
-     * to retrieve the properties <code>firstName</code>,
-     * <code>lastName</code>, and <code>email</code>.
-     * @param user User to map.
-     * @return A UserResponse mapped from a User entity.
+     * Unlike {@link #getAllUsers(Pageable, String)} this does not
+     * skip rows with an offset. Users are ordered by ID and each page
+     * seeks past the last ID of the previous one, so deep pages cost
+     * the same as the first. The total count is only queried when it
+     * is requested.
+     * @param after The cursor returned with the previous page. Empty for the first page.
+     * @param size The maximum number of users in the page.
+     * @param search The search term.
+     * @param includeTotal Whether to count the total number of matching users.
+     * @return A cursor paginated response of UserResponse DTOs.
      */
-    public UserResponse mapToDto(User user) {
-        UserResponse userResponse = modelMapper.map(user, UserResponse.class);
-        userResponse.setRole(user.getUserRole());
-
-        if (user.getUserRole() == UserRole.MEMBER) {
-            MemberUser memberUser = (MemberUser) user;
+    @Transactional
+    @PreAuthorize("hasAnyAuthority(@roles.admin, @roles.employee)")
+    public CursorPaginatedResponse<UserResponse> getAllUsersAfter(String after, int size, String search, boolean includeTotal) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE)
+            throw new BadRequestException(String.format("Size must be between 1 and %d.", MAX_CURSOR_PAGE_SIZE));
 
-            Member member = memberUser.getMember();
-            Applicant applicant = member.getApplicant();
+        SimpleSearchSpecification<User> spec = new SimpleSearchSpecification<>(search);
 
-            String firstName = applicant.getFirstName();
-            String lastName = applicant.getLastName();
-            String email = applicant.getEmail();
+        // Fetch one extra user to know if there is a next page.
+        List<User> users = userSeekRepository.findAllAfter(spec, decodeCursor(after), size + 1);
+        boolean hasNext = users.size() > size;
+        if (hasNext)
+            users = users.subList(0, size);
+
+        prefetchMembers(users);
+        List<UserResponse> content = users.stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+
+        return CursorPaginatedResponse.<UserResponse>builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? encodeCursor(users.get(users.size() - 1).getId()) : null)
+                .totalElements(includeTotal ? repository.count(spec) : null)
+                .build();
+    }
 
-            long memberId = member.getId();
-            String membershipId = member.getMembershipId();
+    private static String encodeCursor(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(id).getBytes(StandardCharsets.UTF_8));
+    }
 
-            userResponse.setFirstName(firstName);
-            userResponse.setLastName(lastName);
-            userResponse.setEmail(email);
-            userResponse.setMemberId(memberId);
-            userResponse.setMembershipId(membershipId);
+    private static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty())
+            return 0;
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Cursor format is invalid.");
         }
+    }
 
-        return userResponse;
+    /**
+     * Initialize the member and applicant of every member user in
+     * the list with one query. The fetched entities are attached to
+     * the current persistence context so mapping the users afterwards
+     * does not issue any more statements.
+     * @param users The users that are about to be mapped.
+     */
+    public void prefetchMembers(List<User> users) {
+        List<Long> memberUserIds = users.stream()
+                .filter(user -> user.getUserRole() == UserRole.MEMBER)
+                .map(User::getId)
+                .collect(Collectors.toList());
+        if (!memberUserIds.isEmpty())
+            memberUserListingRepository.findAllWithApplicantByIdIn(memberUserIds);
+    }
+
+    /**
+     * Helper method to map a user to a user response.
+     * <br/>
+     * The mapping is delegated to the {@link UserResponseMapper}
+     * registered for the concrete User entity. If the user has a
+     * role of MEMBER then it will reach into the MemberUser's linked
+     * applicant to retrieve the properties <code>firstName</code>,
+     * <code>lastName</code>, and <code>email</code>.
+     * @param user User to map.
+     * @return A UserResponse mapped from a User entity.
+     */
+    public UserResponse mapToDto(User user) {
+        User unproxied = (User) Hibernate.unproxy(user);
+        val mapper = mapperMap.get(unproxied.getClass());
+        if (mapper == null)
+            throw new IllegalStateException(String.format("No UserResponseMapper is registered for %s.", unproxied.getClass().getSimpleName()));
+        return mapper.map(unproxied);
     }
 
     /**
@@ -165,23 +339,151 @@ public class UserService {
      *         handlerMap.get(MemberUser.class); // Returns a MemberUserRegistrationHandler
      *     </code>
      * </p>
+     * <br/>
+     * The consumer runs in the same transaction as the registration
+     * so anything it persists (ex. outbox messages) is committed with the user.
      * @param registration The UserRegistration DTO passed from the controller.
      * @return A UserResponse returned from the handler.
      */
+    @Transactional(rollbackOn = {ConflictException.class, UnprocessableException.class})
     public UserResponse registerUser(@Valid UserRegistration registration, @Nullable UserRegistrationConsumer consumer) {
         val handler = handlerMap.get(registration.getClass());
         User registered = handler.register(registration);
+        existenceFilter.add(registered);
         if (consumer != null)
             consumer.onRegistrationComplete(registered);
         return handler.mapToResponse(registered);
     }
 
+    /**
+     * Register many users at once.
+     * <br/>
+     * Every registration is validated on its own and then passed to the
+     * {@link UserRegistrationHandler} of its type, which checks the whole
+     * group with set based queries (see {@link UserRegistrationHandler#prepareAll(List, BiConsumer)}).
+     * Usernames are unique across all user types, so a username repeated
+     * by a later registration of another type is rejected as well.
+     * The passwords of the accepted registrations are hashed in parallel on the
+     * {@link PasswordHashingPool} before the transaction is opened, then the users
+     * are saved together so their inserts can be batched (<code>hibernate.jdbc.batch_size</code>).
+     * <br/>
+     * A rejected registration does not stop the others. The consumer is
+     * called for every registered user in the same transaction. A duplicate
+     * inserted by a concurrent registration after the checks fails the
+     * whole batch with the conflict of the violated constraint
+     * (see {@link UniqueConstraintTranslator}).
+     * @param registrations The UserRegistration DTOs.
+     * @param consumer Called with every persisted user.
+     * @return One result per registration in the order of the registrations.
+     */
+    @PreAuthorize("hasAuthority(@roles.admin)")
+    public BulkRegistrationResponse registerUsers(List<UserRegistration> registrations, @Nullable UserRegistrationConsumer consumer) {
+        BulkRegistrationResult[] results = new BulkRegistrationResult[registrations.size()];
+
+        Map<Class<? extends UserRegistration>, List<Integer>> indicesByType = new LinkedHashMap<>();
+        for (int i = 0; i < registrations.size(); i++) {
+            UserRegistration registration = registrations.get(i);
+            Set<ConstraintViolation<UserRegistration>> violations = validator.validate(registration);
+            if (!violations.isEmpty()) {
+                results[i] = rejected(i, HttpStatus.BAD_REQUEST, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(" ")));
+            } else if (!handlerMap.containsKey(registration.getClass())) {
+                results[i] = rejected(i, HttpStatus.BAD_REQUEST, "Registration type is not supported.");
+            } else {
+                indicesByType.computeIfAbsent(registration.getClass(), type -> new ArrayList<>()).add(i);
+            }
+        }
+
+        Map<Integer, Function<String, User>> prepared = new TreeMap<>();
+        indicesByType.forEach((type, indices) -> {
+            List<UserRegistration> group = indices.stream()
+                    .map(registrations::get)
+                    .collect(Collectors.toList());
+            Map<Integer, Function<String, User>> groupPrepared = handlerMap.get(type).prepareAll(group,
+                    (BiConsumer<Integer, RuntimeException>) (i, e) -> results[indices.get(i)] = rejected(indices.get(i), e));
+            groupPrepared.forEach((i, builder) -> prepared.put(indices.get(i), builder));
+        });
+
+        // Each handler only reserves the usernames of its own type.
+        Set<String> reservedUsernames = new HashSet<>();
+        List<Integer> accepted = new ArrayList<>();
+        List<Function<String, User>> builders = new ArrayList<>();
+        prepared.forEach((i, builder) -> {
+            if (reservedUsernames.add(registrations.get(i).getUsername())) {
+                accepted.add(i);
+                builders.add(builder);
+            } else {
+                results[i] = rejected(i, new UsernameConflictException());
+            }
+        });
+
+        // Nested encodes run inline on the pool workers.
+        List<String> hashedPasswords = hashingPool.callAll("bulk-encode", accepted.stream()
+                .map(i -> (Callable<String>) () -> passwordEncoder.encode(registrations.get(i).getPassword()))
+                .collect(Collectors.toList()));
+
+        List<User> users = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++)
+            users.add(builders.get(i).apply(hashedPasswords.get(i)));
+
+        List<User> saved;
+        try {
+            saved = transactionTemplate.execute(status -> {
+                List<User> persisted = repository.saveAll(users);
+                repository.flush();
+                persisted.forEach(existenceFilter::add);
+                for (int i = 0; i < persisted.size(); i++) {
+                    User user = persisted.get(i);
+                    if (consumer != null)
+                        consumer.onRegistrationComplete(user);
+                    results[accepted.get(i)] = BulkRegistrationResult.builder()
+                            .index(accepted.get(i))
+                            .status(HttpStatus.CREATED.value())
+                            .user(mapToDto(user))
+                            .build();
+                }
+                return persisted;
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw constraintTranslator.translate(e);
+        }
+
+        log.info("Registered {} of {} users in bulk.", saved.size(), registrations.size());
+        return BulkRegistrationResponse.builder()
+                .registered(saved.size())
+                .rejected(registrations.size() - saved.size())
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    private static BulkRegistrationResult rejected(int index, RuntimeException e) {
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        if (e instanceof ConflictException)
+            status = HttpStatus.CONFLICT;
+        else if (e instanceof NotFoundException)
+            status = HttpStatus.NOT_FOUND;
+        else if (e instanceof UnprocessableException)
+            status = HttpStatus.UNPROCESSABLE_ENTITY;
+        return rejected(index, status, e.getMessage());
+    }
+
+    private static BulkRegistrationResult rejected(int index, HttpStatus status, String message) {
+        return BulkRegistrationResult.builder()
+                .index(index)
+                .status(status.value())
+                .message(message)
+                .build();
+    }
+
     public void enableUser(Long id) {
         User user = repository.findById(id).orElseThrow(UserNotFoundException::new);
         if (user.isEnabled())
             throw new UnprocessableException("Cannot enable a user that is already enabled.");
         user.setEnabled(true);
         repository.save(user);
+        userCache.evict(user.getId(), user.getUsername());
     }
 
     /**
@@ -193,15 +495,52 @@ public class UserService {
         return repository.findByToken(token).orElseThrow(UserNotFoundException::new);
     }
 
+    /**
+     * Check whether a username can still be registered.
+     * <br/>
+     * Usernames the {@link UserExistenceFilter} rules out are available
+     * without a query. The others are looked up in the username index
+     * of the {@link UserCache} and then in the database.
+     * @param username The username to check.
+     * @return The availability of the username.
+     */
+    @PermitAll
+    public UsernameAvailability getUsernameAvailability(String username) {
+        boolean taken = existenceFilter.mightContainUsername(username)
+                && (userCache.getId(username) != null || userIdRepository.findIdByUsername(username).isPresent());
+        return UsernameAvailability.builder()
+                .username(username)
+                .available(!taken)
+                .build();
+    }
+
+    /**
+     * Resolve the ID of the current user.
+     * <br/>
+     * Tokens are issued by the core and only carry the username, so the
+     * ID is resolved once with an ID only query and then served from the
+     * username index of the {@link UserCache}. Every <code>/current</code>
+     * endpoint works with the ID from there on.
+     * @param authentication The authentication object of the logged-in user.
+     * @return The ID of the current authenticated user.
+     */
+    public long getCurrentUserId(Authentication authentication) {
+        String username = authentication.getName();
+        Long id = userCache.getId(username);
+        if (id != null)
+            return id;
+        id = userIdRepository.findIdByUsername(username)
+                .orElseThrow(() -> new UnauthorizedException("Not authorized to access this user."));
+        userCache.putId(username, id);
+        return id;
+    }
+
     /**
      * Get current user information.
      * @return The current authenticated user.
      */
     public UserResponse getCurrentUser(Authentication authentication) {
-        String username = authentication.getName();
-        User user = repository.findByUsername(username)
-                .orElseThrow(() -> new UnauthorizedException("Not authorized to access this user."));
-        return mapToDto(user);
+        return loadResponse(getCurrentUserId(authentication));
     }
 
     /**
@@ -212,13 +551,24 @@ public class UserService {
     @PermitAll
     @PostAuthorize("@authService.canAccess(returnObject)")
     public UserProfile getUserProfileById(long id) {
+        return loadProfile(id);
+    }
+
+    private UserProfile loadProfile(long id) {
+        UserProfile cached = userCache.getProfile(id);
+        if (cached != null)
+            return cached;
+
         User user = repository.findById(id).orElseThrow(UserNotFoundException::new);
 
         if (user.getUserRole() != UserRole.MEMBER)
             throw new NotFoundException("User does not have a profile.");
 
+        prefetchMembers(Collections.singletonList(user));
         MemberUser memberUser = (MemberUser) user;
-        return mapUserToProfile(memberUser);
+        UserProfile profile = mapUserToProfile(memberUser);
+        userCache.putProfile(id, profile);
+        return profile;
     }
 
     /**
@@ -227,14 +577,7 @@ public class UserService {
      * @return UserProfile DTO of the currently logged-in user
      */
     public UserProfile getCurrentUserProfile(Authentication authentication) {
-        String username = authentication.getName();
-        User user = repository.findByUsername(username)
-                .orElseThrow(() -> new UnauthorizedException("Not authorized to access this user."));
-        if (user.getUserRole() != UserRole.MEMBER)
-            throw new NotFoundException("User does not have a profile.");
-
-        MemberUser memberUser = (MemberUser) user;
-        return mapUserToProfile(memberUser);
+        return loadProfile(getCurrentUserId(authentication));
     }
 
     /**
@@ -282,6 +625,7 @@ public class UserService {
         MemberUser memberUser = (MemberUser) user;
         Member member = memberUser.getMember();
         Applicant applicant = member.getApplicant();
+        userCache.evict(userId, memberUser.getUsername(), update.getUsername());
 
         ModelMapper modelMapper = new ModelMapper();
         modelMapper.getConfiguration()
@@ -290,6 +634,7 @@ public class UserService {
 
         if (update.getUsername() != null) {
             memberUser.setUsername(update.getUsername());
+            existenceFilter.addUsername(update.getUsername());
         }
 
         applicantService.saveApplicant(applicant);
@@ -304,18 +649,12 @@ public class UserService {
             NotFoundException.class
     })
     public void updateCurrentUserProfile(Authentication authentication, UserProfileUpdate update) {
-        User user = repository.findByUsername(authentication.getName())
-                .orElseThrow(UserNotFoundException::new);
-        long id = user.getId();
-        updateUserProfile(id, update);
+        updateUserProfile(getCurrentUserId(authentication), update);
     }
 
 	@Transactional(rollbackOn = { UserNotFoundException.class, NotFoundException.class })
 	public void disableCurrentUserProfile(Authentication authentication, Boolean status) {
-		User user = repository.findByUsername(authentication.getName()).orElseThrow(UserNotFoundException::new);
-		long id = user.getId();
-		disableUserProfile(id, status);
-
+		disableUserProfile(getCurrentUserId(authentication), status);
 	}
 
 	@Transactional(rollbackOn = { NotFoundException.class, UserNotFoundException.class })
@@ -328,5 +667,6 @@ public class UserService {
 		MemberUser memberUser = (MemberUser) user;
 		memberUser.setEnabled(false);
 		repository.save(memberUser);
+		userCache.evict(userId, memberUser.getUsername());
 	}
 }
@@ -0,0 +1,144 @@
+package com.aline.usermicroservice.service.avatar;
+
+import com.aline.core.exception.BadRequestException;
+import com.aline.usermicroservice.config.AvatarProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Normalizes uploaded avatars. The upload is decoded once, center
+ * cropped to a square, bounded in size and re-encoded along with
+ * every thumbnail size, so avatars are never processed when served.
+ * <br/>
+ * Opaque images are encoded as JPEG and images with transparency
+ * as PNG. Both are the compact formats the JDK can write.
+ */
+@Component
+@RequiredArgsConstructor
+public class AvatarImageProcessor {
+
+    private final AvatarProperties properties;
+
+    /**
+     * Decode, validate and re-encode an uploaded avatar.
+     * @param upload The uploaded image in any format ImageIO can read.
+     * @return The normalized image and its thumbnails.
+     * @throws BadRequestException If the upload is not a readable image or its dimensions are out of bounds.
+     */
+    public ProcessedAvatar process(byte[] upload) {
+        BufferedImage decoded = decode(upload);
+        BufferedImage square = cropToSquare(decoded);
+        boolean alpha = decoded.getColorModel().hasAlpha();
+
+        BufferedImage image = resize(square, Math.min(square.getWidth(), properties.getMaxDimension()), alpha);
+        Map<Integer, byte[]> thumbnails = new LinkedHashMap<>();
+        for (int size : properties.getThumbnailSizes())
+            thumbnails.put(size, encode(resize(image, size, alpha), alpha));
+
+        return new ProcessedAvatar(alpha ? MediaType.IMAGE_PNG_VALUE : MediaType.IMAGE_JPEG_VALUE,
+                encode(image, alpha), thumbnails);
+    }
+
+    /**
+     * The dimensions are read from the header first so oversized
+     * images are rejected before any pixels are allocated.
+     */
+    private BufferedImage decode(byte[] upload) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(upload))) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext())
+                throw new BadRequestException("Avatar is not a supported image.");
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                long width = reader.getWidth(0);
+                long height = reader.getHeight(0);
+                if (width < properties.getMinDimension() || height < properties.getMinDimension())
+                    throw new BadRequestException(String.format("Avatar must be at least %dx%d pixels.",
+                            properties.getMinDimension(), properties.getMinDimension()));
+                if (width * height > properties.getMaxInputPixels())
+                    throw new BadRequestException(String.format("Avatar cannot have more than %d pixels.",
+                            properties.getMaxInputPixels()));
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new BadRequestException("Avatar is not a supported image.");
+        }
+    }
+
+    private static BufferedImage cropToSquare(BufferedImage image) {
+        int side = Math.min(image.getWidth(), image.getHeight());
+        return image.getSubimage((image.getWidth() - side) / 2, (image.getHeight() - side) / 2, side, side);
+    }
+
+    /**
+     * Scale a square image. Large reductions are done in halving
+     * steps, which keeps bilinear filtering from dropping detail.
+     */
+    private static BufferedImage resize(BufferedImage image, int size, boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = image;
+        int currentSize = image.getWidth();
+        do {
+            currentSize = Math.max(size, currentSize / 2);
+            if (currentSize < size * 2 || image.getWidth() <= size)
+                currentSize = size;
+            BufferedImage scaled = new BufferedImage(currentSize, currentSize, type);
+            Graphics2D graphics = scaled.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, currentSize, currentSize, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = scaled;
+        } while (currentSize > size);
+        return current;
+    }
+
+    private byte[] encode(BufferedImage image, boolean alpha) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            if (alpha) {
+                ImageIO.write(image, "png", out);
+                return out.toByteArray();
+            }
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(properties.getJpegQuality());
+                writer.setOutput(ios);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
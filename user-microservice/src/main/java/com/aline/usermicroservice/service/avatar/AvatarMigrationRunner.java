@@ -0,0 +1,78 @@
+package com.aline.usermicroservice.service.avatar;
+
+import com.aline.core.model.user.UserAvatar;
+import com.aline.core.repository.AvatarRepository;
+import com.aline.usermicroservice.config.AvatarProperties;
+import com.aline.usermicroservice.service.AvatarService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * Copies every avatar stored as a {@link UserAvatar} blob into the
+ * configured {@link AvatarStore} and records its metadata.
+ * <br/>
+ * Runs on startup when <code>app.avatar.migrate</code> is true.
+ * To run it as a one-off command:
+ * <br/>
+ * <code>java -jar user-microservice.jar --app.avatar.migrate=true --app.avatar.store=filesystem --spring.main.web-application-type=none</code>
+ * <br/>
+ * Avatars that were already migrated are skipped, so it can be run again after a failure.
+ * With <code>app.avatar.migrate-delete-source</code> the blobs are deleted once copied.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.avatar", name = "migrate", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j(topic = "Avatar Migration")
+public class AvatarMigrationRunner implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 50;
+
+    private final AvatarService avatarService;
+    private final AvatarRepository avatarRepository;
+    private final AvatarProperties properties;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        migrate();
+    }
+
+    /**
+     * Migrate every avatar in batches. Each batch is committed on its own.
+     * @return The number of avatars migrated.
+     */
+    public int migrate() {
+        boolean deleteSource = properties.isMigrateDeleteSource() && !"jdbc".equals(properties.getStore());
+        List<Long> ids = entityManager.createQuery("SELECT a.id FROM UserAvatar a ORDER BY a.id", Long.class)
+                .getResultList();
+        log.info("Migrating {} avatar(s) to the {} store...", ids.size(), properties.getStore());
+
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            template.executeWithoutResult(status -> {
+                for (UserAvatar avatar : avatarRepository.findAllById(batch)) {
+                    avatarService.importAvatar(avatar);
+                    if (deleteSource)
+                        avatarRepository.delete(avatar);
+                }
+                // Detach the migrated blobs so the persistence context does not grow.
+                entityManager.flush();
+                entityManager.clear();
+            });
+            log.info("Migrated {}/{} avatar(s).", from + batch.size(), ids.size());
+        }
+        return ids.size();
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.aline.usermicroservice.service.avatar;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Storage of full size avatar images.
+ * <br/>
+ * Every image is addressed by the ID of its user and the hex SHA-256
+ * digest of its content (also its ETag). Implementations may key images
+ * by either one. A content addressed store can share identical images
+ * between users and never has to overwrite an image in place.
+ * <br/>
+ * The implementation is selected with <code>app.avatar.store</code>.
+ */
+public interface AvatarStore {
+
+    /**
+     * Store an image.
+     * @param userId The ID of the user.
+     * @param digest The hex SHA-256 digest of the image.
+     * @param image The encoded image.
+     */
+    void put(long userId, String digest, byte[] image);
+
+    /**
+     * Check if an image is stored.
+     * @param userId The ID of the user.
+     * @param digest The hex SHA-256 digest of the image.
+     * @return True if the image can be read.
+     */
+    boolean exists(long userId, String digest);
+
+    /**
+     * Copy an image to an output stream.
+     * @param userId The ID of the user.
+     * @param digest The hex SHA-256 digest of the image.
+     * @param out The stream to write the image to.
+     * @return False if the image is not stored.
+     * @throws IOException If the image could not be read or written.
+     */
+    boolean copyTo(long userId, String digest, OutputStream out) throws IOException;
+
+    /**
+     * Delete an image that is no longer the avatar of any user.
+     * @param userId The ID of the user that last referenced the image.
+     * @param digest The hex SHA-256 digest of the image.
+     */
+    void delete(long userId, String digest);
+
+}
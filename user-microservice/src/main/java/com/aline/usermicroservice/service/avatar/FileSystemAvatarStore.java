@@ -0,0 +1,105 @@
+package com.aline.usermicroservice.service.avatar;
+
+import com.aline.usermicroservice.config.AvatarProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Stores avatars as files named by their digest under
+ * <code>app.avatar.directory</code>, sharded by the first two
+ * bytes of the digest (ex. <code>ab/cd/abcd...</code>).
+ * <br/>
+ * Files are written once to a temporary file and moved in place,
+ * so readers never see a partial image. Reads map the file into
+ * memory, so it is served from the page cache without a read call
+ * per chunk. The servlet stream only accepts byte arrays, so each
+ * chunk is still copied once through a small heap buffer.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.avatar", name = "store", havingValue = "filesystem")
+@Slf4j(topic = "File System Avatar Store")
+public class FileSystemAvatarStore implements AvatarStore {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final Path directory;
+
+    public FileSystemAvatarStore(AvatarProperties properties) throws IOException {
+        directory = Files.createDirectories(properties.getDirectory().toAbsolutePath());
+        log.info("Storing avatars in {}", directory);
+    }
+
+    private Path path(String digest) {
+        if (!digest.matches("[0-9a-f]{64}"))
+            throw new IllegalArgumentException("Avatar digest must be a hex SHA-256 digest.");
+        return directory.resolve(digest.substring(0, 2))
+                .resolve(digest.substring(2, 4))
+                .resolve(digest);
+    }
+
+    @Override
+    public void put(long userId, String digest, byte[] image) {
+        Path path = path(digest);
+        if (Files.exists(path))
+            return;
+        try {
+            Files.createDirectories(path.getParent());
+            Path temp = Files.createTempFile(path.getParent(), digest, ".tmp");
+            try {
+                Files.write(temp, image);
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Stored concurrently with the same content
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean exists(long userId, String digest) {
+        return Files.exists(path(digest));
+    }
+
+    @Override
+    public boolean copyTo(long userId, String digest, OutputStream out) throws IOException {
+        try (FileChannel file = FileChannel.open(path(digest), StandardOpenOption.READ)) {
+            // Avatars are bounded by app.avatar.max-size, far below the 2 GB a single mapping can hold.
+            MappedByteBuffer image = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+            byte[] chunk = new byte[(int) Math.min(CHUNK_SIZE, image.remaining())];
+            while (image.hasRemaining()) {
+                int length = Math.min(chunk.length, image.remaining());
+                image.get(chunk, 0, length);
+                out.write(chunk, 0, length);
+            }
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void delete(long userId, String digest) {
+        try {
+            Files.deleteIfExists(path(digest));
+        } catch (IOException e) {
+            log.warn("Could not delete avatar {}", digest, e);
+        }
+    }
+
+}
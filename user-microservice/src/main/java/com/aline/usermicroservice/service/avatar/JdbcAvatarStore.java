@@ -0,0 +1,47 @@
+package com.aline.usermicroservice.service.avatar;
+
+import com.aline.core.model.user.UserAvatar;
+import com.aline.core.repository.AvatarRepository;
+import com.aline.usermicroservice.repository.AvatarBlobRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+
+/**
+ * Stores avatars as {@link UserAvatar} blobs in the service database, keyed by user ID.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.avatar", name = "store", havingValue = "jdbc", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JdbcAvatarStore implements AvatarStore {
+
+    private final AvatarRepository avatarRepository;
+    private final AvatarBlobRepository blobRepository;
+
+    @Override
+    public void put(long userId, String digest, byte[] image) {
+        avatarRepository.save(new UserAvatar(userId, image));
+    }
+
+    @Override
+    public boolean exists(long userId, String digest) {
+        return avatarRepository.existsById(userId);
+    }
+
+    @Override
+    public boolean copyTo(long userId, String digest, OutputStream out) {
+        return blobRepository.copyTo(userId, out);
+    }
+
+    /**
+     * The row is overwritten by the next avatar of the user,
+     * so there is nothing to delete.
+     */
+    @Override
+    public void delete(long userId, String digest) {
+        // Overwritten in place
+    }
+
+}
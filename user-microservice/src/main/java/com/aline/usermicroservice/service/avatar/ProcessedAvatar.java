@@ -0,0 +1,28 @@
+package com.aline.usermicroservice.service.avatar;
+
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * An uploaded avatar after it was normalized by the {@link AvatarImageProcessor}.
+ */
+@Value
+public class ProcessedAvatar {
+
+    /**
+     * Media type of the image and of every thumbnail.
+     */
+    String contentType;
+
+    /**
+     * The square, re-encoded image bounded by <code>app.avatar.max-dimension</code>.
+     */
+    byte[] image;
+
+    /**
+     * Encoded thumbnails by their width and height in pixels.
+     */
+    Map<Integer, byte[]> thumbnails;
+
+}
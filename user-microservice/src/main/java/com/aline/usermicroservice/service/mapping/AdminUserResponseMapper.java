@@ -0,0 +1,32 @@
+package com.aline.usermicroservice.service.mapping;
+
+import com.aline.core.dto.response.UserResponse;
+import com.aline.core.model.user.AdminUser;
+import org.springframework.stereotype.Component;
+
+/**
+ * Implementation of the UserResponseMapper interface.
+ * Maps an AdminUser (administrators and employees)
+ * into a UserResponse.
+ */
+@Component
+public class AdminUserResponseMapper implements UserResponseMapper<AdminUser> {
+
+    @Override
+    public Class<AdminUser> maps() {
+        return AdminUser.class;
+    }
+
+    @Override
+    public UserResponse map(AdminUser adminUser) {
+        return UserResponse.builder()
+                .id(adminUser.getId())
+                .username(adminUser.getUsername())
+                .firstName(adminUser.getFirstName())
+                .lastName(adminUser.getLastName())
+                .email(adminUser.getEmail())
+                .role(adminUser.getUserRole())
+                .enabled(adminUser.isEnabled())
+                .build();
+    }
+}
@@ -0,0 +1,40 @@
+package com.aline.usermicroservice.service.mapping;
+
+import com.aline.core.dto.response.UserResponse;
+import com.aline.core.model.Applicant;
+import com.aline.core.model.Member;
+import com.aline.core.model.user.MemberUser;
+import org.springframework.stereotype.Component;
+
+/**
+ * Implementation of the UserResponseMapper interface.
+ * Maps a MemberUser into a UserResponse by reaching into
+ * the linked member and applicant to retrieve the
+ * <code>firstName</code>, <code>lastName</code>, and <code>email</code>.
+ */
+@Component
+public class MemberUserResponseMapper implements UserResponseMapper<MemberUser> {
+
+    @Override
+    public Class<MemberUser> maps() {
+        return MemberUser.class;
+    }
+
+    @Override
+    public UserResponse map(MemberUser memberUser) {
+        Member member = memberUser.getMember();
+        Applicant applicant = member.getApplicant();
+
+        return UserResponse.builder()
+                .id(memberUser.getId())
+                .username(memberUser.getUsername())
+                .firstName(applicant.getFirstName())
+                .lastName(applicant.getLastName())
+                .email(applicant.getEmail())
+                .role(memberUser.getUserRole())
+                .enabled(memberUser.isEnabled())
+                .memberId(member.getId())
+                .membershipId(member.getMembershipId())
+                .build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.aline.usermicroservice.service.mapping;
+
+import com.aline.core.dto.response.UserResponse;
+import com.aline.core.model.user.User;
+import org.springframework.stereotype.Component;
+
+/**
+ * The UserResponseMapper interface provides a
+ * hand-specialized mapping of a concrete User entity
+ * into a {@link UserResponse} DTO. Implementations read
+ * the entity's properties directly instead of relying
+ * on reflection.
+ * @param <U> The User entity that this mapper maps.
+ */
+@Component
+public interface UserResponseMapper<U extends User> {
+
+    /**
+     * Returns the class literal of the User entity.
+     * @return Class literal of the User entity.
+     */
+    Class<U> maps();
+
+    /**
+     * Map the entity to a {@link UserResponse} DTO.
+     * @param u The User entity to be mapped.
+     * @return A UserResponse mapped from the passed User entity.
+     */
+    UserResponse map(U u);
+}
@@ -0,0 +1,193 @@
+package com.aline.usermicroservice.service.outbox;
+
+import com.aline.core.aws.email.EmailService;
+import com.aline.core.aws.sms.SMSService;
+import com.aline.core.aws.sms.SMSType;
+import com.aline.usermicroservice.config.OutboxProperties;
+import com.aline.usermicroservice.model.OutboxMessage;
+import com.aline.usermicroservice.model.OutboxMessageStatus;
+import com.aline.usermicroservice.repository.OutboxMessageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers queued {@link OutboxMessage outbox messages}
+ * with the {@link EmailService} and {@link SMSService}.
+ * <br/>
+ * The dispatcher polls the outbox table, claims due messages
+ * with a conditional update (so replicas never deliver the same
+ * message twice) and hands them to a bounded worker pool.
+ * Failed deliveries are retried with exponential backoff until
+ * <code>app.outbox.max-attempts</code> is reached.
+ * <br/>
+ * A claim is a lease of <code>app.outbox.lease</code>. A message whose
+ * lease expired is not delivered, and the outcome of a delivery is
+ * only saved if the message was not claimed again in the meantime
+ * (see {@link OutboxMessage#getVersion()}).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j(topic = "Outbox Dispatcher")
+public class OutboxDispatcher {
+
+    private static final Collection<OutboxMessageStatus> CLAIMABLE =
+            Arrays.asList(OutboxMessageStatus.PENDING, OutboxMessageStatus.PROCESSING);
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private final OutboxMessageRepository repository;
+    private final EmailService emailService;
+    private final SMSService smsService;
+    private final OutboxProperties properties;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+                properties.getWorkers(), properties.getWorkers(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "outbox-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS))
+            executor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:500}")
+    public void poll() {
+        if (properties.isPollEnabled())
+            dispatchPending();
+    }
+
+    /**
+     * Claim due messages and submit them to the worker pool.
+     * Never claims more messages than the pool can queue.
+     * @return The number of messages that were claimed.
+     */
+    public int dispatchPending() {
+        int capacity = Math.min(properties.getBatchSize(), executor.getQueue().remainingCapacity());
+        if (capacity <= 0)
+            return 0;
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> dueIds = repository.findDueIds(CLAIMABLE, now, PageRequest.of(0, capacity));
+
+        int claimed = 0;
+        for (Long id : dueIds) {
+            if (repository.claim(id, CLAIMABLE, OutboxMessageStatus.PROCESSING, now, now.plus(properties.getLease())) == 1) {
+                executor.execute(() -> deliver(id));
+                claimed++;
+            }
+        }
+
+        if (claimed > 0)
+            log.info("Claimed {} outbox message(s) for delivery.", claimed);
+        return claimed;
+    }
+
+    /**
+     * Deliver a claimed message and record the outcome.
+     * @param id The ID of the claimed message.
+     */
+    void deliver(long id) {
+        OutboxMessage message = repository.findById(id).orElse(null);
+        if (message == null || message.getStatus() != OutboxMessageStatus.PROCESSING)
+            return;
+        if (message.getNextAttemptAt().isBefore(LocalDateTime.now())) {
+            log.warn("Lease of outbox message {} expired before delivery. Leaving it to the next claim.", id);
+            return;
+        }
+
+        message.setAttempts(message.getAttempts() + 1);
+        try {
+            switch (message.getType()) {
+                case EMAIL:
+                    emailService.sendHtmlEmail(message.getSubject(), message.getContent(),
+                            message.getRecipient(), message.getVariables());
+                    break;
+                case SMS:
+                    smsService.sendSMSMessage(message.getRecipient(), message.getContent(),
+                            SMSType.valueOf(message.getSubject()));
+                    break;
+            }
+            markSent(message);
+        } catch (Exception e) {
+            markFailedAttempt(message, e);
+        }
+        try {
+            repository.save(message);
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Outbox message {} was claimed again while it was delivered. Keeping the new claim.", id);
+        }
+    }
+
+    private void markSent(OutboxMessage message) {
+        message.setStatus(OutboxMessageStatus.SENT);
+        message.setSent(LocalDateTime.now());
+        message.setLastError(null);
+        redact(message);
+    }
+
+    private void markFailedAttempt(OutboxMessage message, Exception e) {
+        String error = String.valueOf(e.getMessage());
+        message.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+
+        if (message.getAttempts() >= properties.getMaxAttempts()) {
+            log.error("Outbox message {} failed after {} attempt(s).", message.getId(), message.getAttempts(), e);
+            message.setStatus(OutboxMessageStatus.FAILED);
+            redact(message);
+            return;
+        }
+
+        Duration backoff = backoff(message.getAttempts());
+        log.warn("Outbox message {} failed on attempt {}. Retrying in {}.", message.getId(), message.getAttempts(), backoff);
+        message.setStatus(OutboxMessageStatus.PENDING);
+        message.setNextAttemptAt(LocalDateTime.now().plus(backoff));
+    }
+
+    /**
+     * Do not keep one-time passcodes and confirmation links around
+     * once a message will not be delivered again, sent or not.
+     * @param message The message that reached a final status.
+     */
+    private void redact(OutboxMessage message) {
+        message.setContent(null);
+        message.setVariables(null);
+    }
+
+    /**
+     * Exponential backoff capped at <code>app.outbox.max-backoff</code>.
+     * @param attempts The number of attempts made so far.
+     * @return The delay before the next attempt.
+     */
+    Duration backoff(int attempts) {
+        Duration backoff = properties.getInitialBackoff().multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(properties.getMaxBackoff()) > 0 ? properties.getMaxBackoff() : backoff;
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.aline.usermicroservice.service.outbox;
+
+import com.aline.core.aws.sms.SMSType;
+import com.aline.usermicroservice.model.OutboxMessage;
+import com.aline.usermicroservice.model.OutboxMessageType;
+import com.aline.usermicroservice.repository.OutboxMessageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Queues emails and SMS messages in the outbox table.
+ * <br/>
+ * Messages are saved in the caller's transaction so they
+ * are only delivered if the caller commits. Delivery
+ * happens off the request thread in the {@link OutboxDispatcher}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j(topic = "Outbox Service")
+public class OutboxService {
+
+    private final OutboxMessageRepository repository;
+
+    /**
+     * Queue an HTML email.
+     * @param subject The subject of the email.
+     * @param template The name of the email template.
+     * @param email The email address of the recipient.
+     * @param variables The variables to interpolate into the template.
+     * @return The queued message.
+     */
+    @Transactional
+    public OutboxMessage queueHtmlEmail(String subject, String template, String email, Map<String, String> variables) {
+        log.info("Queueing email '{}' to outbox.", subject);
+        LocalDateTime now = LocalDateTime.now();
+        return repository.save(OutboxMessage.builder()
+                .type(OutboxMessageType.EMAIL)
+                .recipient(email)
+                .subject(subject)
+                .content(template)
+                .variables(variables)
+                .created(now)
+                .nextAttemptAt(now)
+                .build());
+    }
+
+    /**
+     * Queue an SMS message.
+     * @param phoneNumber The phone number of the recipient.
+     * @param message The message to send.
+     * @param type The type of SMS message.
+     * @return The queued message.
+     */
+    @Transactional
+    public OutboxMessage queueSMSMessage(String phoneNumber, String message, SMSType type) {
+        log.info("Queueing {} SMS message to outbox.", type);
+        LocalDateTime now = LocalDateTime.now();
+        return repository.save(OutboxMessage.builder()
+                .type(OutboxMessageType.SMS)
+                .recipient(phoneNumber)
+                .subject(type.name())
+                .content(message)
+                .created(now)
+                .nextAttemptAt(now)
+                .build());
+    }
+
+}
@@ -7,11 +7,22 @@ import com.aline.core.exception.conflict.UsernameConflictException;
 import com.aline.core.model.user.AdminUser;
 import com.aline.core.model.user.UserRole;
 import com.aline.core.repository.AdminUserRepository;
+import com.aline.usermicroservice.cache.UserExistenceFilter;
+import com.aline.usermicroservice.repository.UserRegistrationRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import javax.transaction.Transactional;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Implementation of the UserRegistrationHandler interface.
@@ -24,21 +35,66 @@ public class AdminUserRegistrationHandler implements UserRegistrationHandler<Adm
 
     private final PasswordEncoder passwordEncoder;
     private final AdminUserRepository repository;
+    private final UserRegistrationRepository registrationRepository;
+    private final UniqueConstraintTranslator constraintTranslator;
+    private final UserExistenceFilter existenceFilter;
 
     @Override
     public Class<AdminUserRegistration> registersAs() {
         return AdminUserRegistration.class;
     }
 
+    /**
+     * Duplicate usernames and emails are rejected by the unique
+     * constraints of the user table (see {@link UniqueConstraintTranslator}).
+     * User IDs are generated by the database so the insert runs on save.
+     * Values the {@link UserExistenceFilter} cannot rule out are checked
+     * first so taken ones are rejected before the password is hashed.
+     */
     @Transactional(rollbackOn = {UsernameConflictException.class, EmailConflictException.class})
     @Override
     public AdminUser register(AdminUserRegistration registration) {
-        if (repository.existsByUsername(registration.getUsername()))
+        if (existenceFilter.mightContainUsername(registration.getUsername()) && repository.existsByUsername(registration.getUsername()))
             throw new UsernameConflictException();
-        if (repository.existsByEmail(registration.getEmail()))
+        if (existenceFilter.mightContainEmail(registration.getEmail()) && repository.existsByEmail(registration.getEmail()))
             throw new EmailConflictException();
         String hashedPassword = passwordEncoder.encode(registration.getPassword());
-        AdminUser user = AdminUser.builder()
+        try {
+            return repository.save(build(registration, hashedPassword));
+        } catch (DataIntegrityViolationException e) {
+            throw constraintTranslator.translate(e);
+        }
+    }
+
+    @Override
+    public Map<Integer, Function<String, AdminUser>> prepareAll(List<AdminUserRegistration> registrations,
+                                                               BiConsumer<Integer, RuntimeException> rejected) {
+        Set<String> usernames = new HashSet<>(registrationRepository.findExistingUsernames(registrations.stream()
+                .map(AdminUserRegistration::getUsername)
+                .collect(Collectors.toSet())));
+        Set<String> emails = new HashSet<>(registrationRepository.findExistingAdminEmails(registrations.stream()
+                .map(AdminUserRegistration::getEmail)
+                .collect(Collectors.toSet())));
+
+        Map<Integer, Function<String, AdminUser>> prepared = new HashMap<>();
+        for (int i = 0; i < registrations.size(); i++) {
+            AdminUserRegistration registration = registrations.get(i);
+            if (usernames.contains(registration.getUsername())) {
+                rejected.accept(i, new UsernameConflictException());
+            } else if (emails.contains(registration.getEmail())) {
+                rejected.accept(i, new EmailConflictException());
+            } else {
+                // Claim the values so later registrations in the batch cannot reuse them.
+                usernames.add(registration.getUsername());
+                emails.add(registration.getEmail());
+                prepared.put(i, hashedPassword -> build(registration, hashedPassword));
+            }
+        }
+        return prepared;
+    }
+
+    private AdminUser build(AdminUserRegistration registration, String hashedPassword) {
+        return AdminUser.builder()
                 .firstName(registration.getFirstName())
                 .lastName(registration.getLastName())
                 .email(registration.getEmail())
@@ -46,7 +102,6 @@ public class AdminUserRegistrationHandler implements UserRegistrationHandler<Adm
                 .phone(registration.getPhone())
                 .password(hashedPassword)
                 .build();
-        return repository.save(user);
     }
 
     @Override
@@ -10,12 +10,23 @@ import com.aline.core.model.Member;
 import com.aline.core.model.user.MemberUser;
 import com.aline.core.model.user.UserRole;
 import com.aline.core.repository.MemberUserRepository;
+import com.aline.usermicroservice.cache.UserExistenceFilter;
+import com.aline.usermicroservice.repository.UserRegistrationRepository;
 import com.aline.usermicroservice.service.MemberService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import javax.transaction.Transactional;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Implementation of the UserRegistrationHandler interface.
@@ -29,30 +40,77 @@ public class MemberUserRegistrationHandler implements UserRegistrationHandler<Me
     private final MemberService memberService;
     private final PasswordEncoder passwordEncoder;
     private final MemberUserRepository repository;
+    private final UserRegistrationRepository registrationRepository;
+    private final UniqueConstraintTranslator constraintTranslator;
+    private final UserExistenceFilter existenceFilter;
 
     @Override
     public Class<MemberUserRegistration> registersAs() {
         return MemberUserRegistration.class;
     }
 
+    /**
+     * The membership and SSN are verified by the {@link MemberService},
+     * which rejects repeated failed attempts from its cache.
+     * Duplicate usernames and memberships are rejected by the unique
+     * constraints of the user tables (see {@link UniqueConstraintTranslator}).
+     * User IDs are generated by the database so the insert runs on save.
+     * A username the {@link UserExistenceFilter} cannot rule out is checked
+     * first so a taken one is rejected before the password is hashed.
+     */
     @Transactional(rollbackOn = {MemberNotFoundException.class, ConflictException.class, UsernameConflictException.class, UnprocessableException.class})
     @Override
     public MemberUser register(MemberUserRegistration registration) {
-        if (repository.existsByUsername(registration.getUsername()))
+        if (existenceFilter.mightContainUsername(registration.getUsername()) && repository.existsByUsername(registration.getUsername()))
             throw new UsernameConflictException();
-        Member member = memberService.getMemberByMembershipId(registration.getMembershipId());
-        if (!member.getApplicant().getSocialSecurity().endsWith(registration.getLastFourOfSSN()))
-            throw new MemberNotFoundException();
-        if (repository.existsByMembershipId(registration.getMembershipId()))
-            throw new ConflictException("A user already exists with this membership.");
+        Member member = memberService.getVerifiedMember(registration.getMembershipId(), registration.getLastFourOfSSN());
         String hashedPassword = passwordEncoder.encode(registration.getPassword());
-        MemberUser user = MemberUser.builder()
+        try {
+            return repository.save(build(registration, member, hashedPassword));
+        } catch (DataIntegrityViolationException e) {
+            throw constraintTranslator.translate(e);
+        }
+    }
+
+    @Override
+    public Map<Integer, Function<String, MemberUser>> prepareAll(List<MemberUserRegistration> registrations,
+                                                                BiConsumer<Integer, RuntimeException> rejected) {
+        Set<String> membershipIds = registrations.stream()
+                .map(MemberUserRegistration::getMembershipId)
+                .collect(Collectors.toSet());
+        Set<String> usernames = new HashSet<>(registrationRepository.findExistingUsernames(registrations.stream()
+                .map(MemberUserRegistration::getUsername)
+                .collect(Collectors.toSet())));
+        Set<String> registeredMembershipIds = new HashSet<>(registrationRepository.findRegisteredMembershipIds(membershipIds));
+        Map<String, Member> members = registrationRepository.findMembersWithApplicant(membershipIds).stream()
+                .collect(Collectors.toMap(Member::getMembershipId, Function.identity()));
+
+        Map<Integer, Function<String, MemberUser>> prepared = new HashMap<>();
+        for (int i = 0; i < registrations.size(); i++) {
+            MemberUserRegistration registration = registrations.get(i);
+            Member member = members.get(registration.getMembershipId());
+            if (usernames.contains(registration.getUsername())) {
+                rejected.accept(i, new UsernameConflictException());
+            } else if (member == null || !member.getApplicant().getSocialSecurity().endsWith(registration.getLastFourOfSSN())) {
+                rejected.accept(i, new MemberNotFoundException());
+            } else if (registeredMembershipIds.contains(registration.getMembershipId())) {
+                rejected.accept(i, new ConflictException("A user already exists with this membership."));
+            } else {
+                // Claim the values so later registrations in the batch cannot reuse them.
+                usernames.add(registration.getUsername());
+                registeredMembershipIds.add(registration.getMembershipId());
+                prepared.put(i, hashedPassword -> build(registration, member, hashedPassword));
+            }
+        }
+        return prepared;
+    }
+
+    private MemberUser build(MemberUserRegistration registration, Member member, String hashedPassword) {
+        return MemberUser.builder()
                 .username(registration.getUsername())
                 .password(hashedPassword)
                 .member(member)
                 .build();
-
-        return repository.save(user);
     }
 
     @Override
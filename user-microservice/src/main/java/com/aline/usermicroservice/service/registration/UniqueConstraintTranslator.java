@@ -0,0 +1,123 @@
+package com.aline.usermicroservice.service.registration;
+
+import com.aline.core.exception.ConflictException;
+import com.aline.core.exception.conflict.EmailConflictException;
+import com.aline.core.exception.conflict.UsernameConflictException;
+import com.aline.core.model.user.AdminUser;
+import com.aline.core.model.user.MemberUser;
+import com.aline.core.model.user.User;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Translates unique constraint violations raised while saving
+ * a user into the conflict exceptions of the registration API.
+ * <br/>
+ * Registration handlers insert without checking for duplicates
+ * first and let the database reject them, which takes a single
+ * round trip and cannot race with concurrent registrations.
+ * <br/>
+ * The user tables are mapped in the core and their unique indexes
+ * are created by <code>db/migration/registration-unique-indexes.sql</code>.
+ * At startup the unique index of each registration column (username,
+ * admin email and the member of a member user) is looked up in the
+ * database metadata and the violated constraint is then matched by
+ * its index name.
+ * <br/>
+ * The handlers no longer check every column before inserting, so
+ * startup fails if an index is missing. The exception names the
+ * statement to run.
+ */
+@Component
+@RequiredArgsConstructor
+public class UniqueConstraintTranslator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final Map<String, Supplier<RuntimeException>> conflicts = new LinkedHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        register(User.class, "username", UsernameConflictException::new);
+        register(AdminUser.class, "email", EmailConflictException::new);
+        register(MemberUser.class, "member", () -> new ConflictException("A user already exists with this membership."));
+    }
+
+    /**
+     * Translate a failed insert of a user.
+     * @param e The exception thrown by the repository.
+     * @return The conflict exception of the violated constraint or
+     *         <code>e</code> if it is not a registration constraint.
+     */
+    public RuntimeException translate(DataIntegrityViolationException e) {
+        String violated = violatedConstraint(e).toLowerCase(Locale.ROOT);
+        return conflicts.entrySet().stream()
+                .filter(conflict -> violated.contains(conflict.getKey()))
+                .findFirst()
+                .<RuntimeException>map(conflict -> conflict.getValue().get())
+                .orElse(e);
+    }
+
+    private String violatedConstraint(DataIntegrityViolationException e) {
+        // Hibernate extracts the name for the dialect. Fall back to the driver message.
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException && ((ConstraintViolationException) cause).getConstraintName() != null)
+                return ((ConstraintViolationException) cause).getConstraintName();
+        }
+        return String.valueOf(NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+    }
+
+    private void register(Class<? extends User> entity, String property, Supplier<RuntimeException> conflict) {
+        AbstractEntityPersister persister = (AbstractEntityPersister) entityManagerFactory
+                .unwrap(SessionFactoryImplementor.class)
+                .getMetamodel()
+                .entityPersister(entity);
+        String table = persister.getPropertyTableName(property);
+        String column = persister.getPropertyColumnNames(property)[0];
+        String index = findUniqueIndex(table, column).orElseThrow(() -> new IllegalStateException(String.format(
+                "The unique index on %s.%s is missing. Registrations rely on it to reject duplicates. " +
+                        "Apply db/migration/registration-unique-indexes.sql or create it with: " +
+                        "CREATE UNIQUE INDEX uk_%s ON %s (%s)", table, column, column, table, column)));
+        conflicts.put(index.toLowerCase(Locale.ROOT), conflict);
+    }
+
+    private Optional<String> findUniqueIndex(String table, String column) {
+        return jdbcTemplate.execute((ConnectionCallback<Optional<String>>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String tableName = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+            Map<String, List<String>> columnsByIndex = new LinkedHashMap<>();
+            try (ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(), null, tableName, true, false)) {
+                while (indexes.next()) {
+                    String index = indexes.getString("INDEX_NAME");
+                    if (index != null)
+                        columnsByIndex.computeIfAbsent(index, name -> new ArrayList<>()).add(indexes.getString("COLUMN_NAME"));
+                }
+            }
+            return columnsByIndex.entrySet().stream()
+                    .filter(index -> index.getValue().size() == 1 && column.equalsIgnoreCase(index.getValue().get(0)))
+                    .map(Map.Entry::getKey)
+                    .findFirst();
+        });
+    }
+
+}
@@ -5,6 +5,11 @@ import com.aline.core.dto.response.UserResponse;
 import com.aline.core.model.user.User;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
 /**
  * The UserRegistrationHandler interfaces provides
  * abstraction for derived classes that need to implement
@@ -29,6 +34,23 @@ public interface UserRegistrationHandler<U extends User, Registration extends Us
      */
     U register(Registration registration);
 
+    /**
+     * Check many registrations at once and prepare the entities
+     * of the ones that can be registered.
+     * <br/>
+     * The checks are the same as in {@link #register(UserRegistration)}
+     * but are done with set based queries. A registration that repeats
+     * a unique value of an earlier registration in the list is rejected too.
+     * <br/>
+     * Nothing is persisted. Each prepared registration is returned as a
+     * function that builds the unsaved entity from the hashed password,
+     * so the caller can hash all passwords in parallel first.
+     * @param registrations The Registration DTOs.
+     * @param rejected Receives the index and the reason of every rejected registration.
+     * @return The entity builders keyed by the index of their registration.
+     */
+    Map<Integer, Function<String, U>> prepareAll(List<Registration> registrations, BiConsumer<Integer, RuntimeException> rejected);
+
     /**
      * This method provides an implementation of
      * mapping the entity to a {@link UserResponse} DTO.
@@ -0,0 +1,10 @@
+-- Unique indexes the registration API relies on to reject duplicate users
+-- (see UniqueConstraintTranslator). The user tables are mapped in the core,
+-- so apply this script once per database before deploying. The service
+-- checks the indexes on startup and refuses to start if one is missing.
+-- If the core maps these columns to other tables, the startup error names
+-- the statement to run instead.
+
+CREATE UNIQUE INDEX uk_username ON user (username);
+CREATE UNIQUE INDEX uk_email ON user (email);
+CREATE UNIQUE INDEX uk_member_id ON user (member_id);
@@ -0,0 +1,44 @@
+package com.aline.usermicroservice;
+
+import com.aline.usermicroservice.cache.BloomFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Bloom Filter Test")
+class BloomFilterTest {
+
+    private static final int VALUES = 10_000;
+
+    @Test
+    void test_mightContain_isTrue_for_every_added_value() {
+        BloomFilter filter = new BloomFilter(VALUES, 0.01);
+        for (int i = 0; i < VALUES; i++)
+            filter.put("user_" + i);
+
+        for (int i = 0; i < VALUES; i++)
+            assertTrue(filter.mightContain("user_" + i));
+    }
+
+    @Test
+    void test_falsePositiveRate_stays_near_target() {
+        BloomFilter filter = new BloomFilter(VALUES, 0.01);
+        for (int i = 0; i < VALUES; i++)
+            filter.put("user_" + i);
+
+        int falsePositives = 0;
+        for (int i = 0; i < VALUES; i++) {
+            if (filter.mightContain("other_" + i))
+                falsePositives++;
+        }
+        assertTrue(falsePositives < VALUES * 0.02, "False positives: " + falsePositives);
+    }
+
+    @Test
+    void test_mightContain_isFalse_when_empty() {
+        assertFalse(new BloomFilter(VALUES, 0.01).mightContain("user_1"));
+    }
+
+}
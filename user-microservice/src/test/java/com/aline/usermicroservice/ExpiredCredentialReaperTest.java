@@ -0,0 +1,165 @@
+package com.aline.usermicroservice;
+
+import com.aline.core.annotation.test.SpringBootIntegrationTest;
+import com.aline.core.aws.email.EmailService;
+import com.aline.core.model.OneTimePasscode;
+import com.aline.core.model.user.AdminUser;
+import com.aline.core.model.user.UserRegistrationToken;
+import com.aline.core.repository.AdminUserRepository;
+import com.aline.core.repository.OneTimePasscodeRepository;
+import com.aline.core.repository.UserRegistrationTokenRepository;
+import com.aline.usermicroservice.config.ConfirmationTokenProperties;
+import com.aline.usermicroservice.config.ReaperProperties;
+import com.aline.usermicroservice.repository.RegistrationConfirmationRepository;
+import com.aline.usermicroservice.service.ExpiredCredentialReaper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootIntegrationTest
+@DisplayName("Expired Credential Reaper Test")
+@Transactional
+class ExpiredCredentialReaperTest {
+
+    @MockBean
+    EmailService emailService;
+
+    @Autowired
+    ExpiredCredentialReaper reaper;
+
+    @Autowired
+    AdminUserRepository adminUserRepository;
+
+    @Autowired
+    UserRegistrationTokenRepository tokenRepository;
+
+    @Autowired
+    OneTimePasscodeRepository otpRepository;
+
+    @Autowired
+    RegistrationConfirmationRepository confirmationRepository;
+
+    @Autowired
+    ReaperProperties properties;
+
+    @Autowired
+    ConfirmationTokenProperties tokenProperties;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    private AdminUser createUser(String username) {
+        return adminUserRepository.save(AdminUser.builder()
+                .firstName("Admin")
+                .lastName("Boy")
+                .email(username + "@email.com")
+                .username(username)
+                .phone("(222) 222-2222")
+                .password("hash")
+                .build());
+    }
+
+    private void createToken(AdminUser user, LocalDateTime expiration) {
+        UserRegistrationToken token = new UserRegistrationToken();
+        token.setUser(user);
+        tokenRepository.save(token);
+        entityManager.flush();
+        entityManager.createQuery("UPDATE UserRegistrationToken t SET t.expiration = :expiration WHERE t.user.id = :id")
+                .setParameter("expiration", expiration)
+                .setParameter("id", user.getId())
+                .executeUpdate();
+    }
+
+    private void createOtp(AdminUser user, String stored) {
+        otpRepository.save(OneTimePasscode.builder()
+                .otp(stored)
+                .user(user)
+                .build());
+    }
+
+    private double deleted(String type) {
+        return meterRegistry.get("credential.reaper.deleted").tag("type", type).counter().count();
+    }
+
+    @Test
+    void test_reap_deletes_expired_tokens_and_otps_only() {
+        AdminUser expired = createUser("reaper_expired");
+        AdminUser fresh = createUser("reaper_fresh");
+        AdminUser legacy = createUser("reaper_legacy");
+
+        createToken(expired, LocalDateTime.now().minusHours(1));
+        createToken(fresh, LocalDateTime.now().plusHours(23));
+
+        long future = Instant.now().plusSeconds(600).getEpochSecond();
+        createOtp(expired, "hmac1$1000000000$0$mac");
+        createOtp(fresh, "hmac1$" + future + "$0$mac");
+        createOtp(legacy, "$2a$10$legacyBcryptHashOfAPasscode");
+        entityManager.flush();
+
+        double tokensBefore = deleted("registration_token");
+        double otpsBefore = deleted("otp");
+
+        reaper.reap();
+        entityManager.clear();
+
+        assertFalse(tokenRepository.findByUserId(expired.getId()).isPresent());
+        assertTrue(tokenRepository.findByUserId(fresh.getId()).isPresent());
+        assertFalse(otpRepository.findByUserUsername("reaper_expired").isPresent());
+        assertTrue(otpRepository.findByUserUsername("reaper_fresh").isPresent());
+        // Replicas still on the BCrypt format may have just issued it.
+        assertTrue(otpRepository.findByUserUsername("reaper_legacy").isPresent());
+
+        assertEquals(1, deleted("registration_token") - tokensBefore);
+        assertEquals(1, deleted("otp") - otpsBefore);
+    }
+
+    @Test
+    void test_reap_deletes_legacy_otps_when_enabled() {
+        AdminUser legacy = createUser("reaper_legacy");
+        createOtp(legacy, "$2a$10$legacyBcryptHashOfAPasscode");
+        entityManager.flush();
+
+        properties.setReapLegacyOtps(true);
+        try {
+            reaper.reap();
+        } finally {
+            properties.setReapLegacyOtps(false);
+        }
+        entityManager.clear();
+
+        assertFalse(otpRepository.findByUserUsername("reaper_legacy").isPresent());
+    }
+
+    @Test
+    void test_reap_deletes_confirmations_older_than_the_token_ttl() {
+        AdminUser expired = createUser("reaper_confirmed_long_ago");
+        AdminUser fresh = createUser("reaper_confirmed_recently");
+        confirmationRepository.insert(expired.getId(), LocalDateTime.now().minus(tokenProperties.getTtl()).minusMinutes(1));
+        confirmationRepository.insert(fresh.getId(), LocalDateTime.now().minusMinutes(1));
+
+        double confirmationsBefore = deleted("registration_confirmation");
+
+        reaper.reap();
+        entityManager.clear();
+
+        assertFalse(confirmationRepository.existsById(expired.getId()));
+        // A token issued just before this confirmation may still be replayed.
+        assertTrue(confirmationRepository.existsById(fresh.getId()));
+        assertEquals(1, deleted("registration_confirmation") - confirmationsBefore);
+    }
+
+}
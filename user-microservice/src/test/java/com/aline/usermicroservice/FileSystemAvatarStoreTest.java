@@ -0,0 +1,81 @@
+package com.aline.usermicroservice;
+
+import com.aline.usermicroservice.config.AvatarProperties;
+import com.aline.usermicroservice.service.avatar.FileSystemAvatarStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("File System Avatar Store Test")
+class FileSystemAvatarStoreTest {
+
+    private static final String DIGEST = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+    private static final byte[] IMAGE = "test".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path directory;
+
+    FileSystemAvatarStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AvatarProperties properties = new AvatarProperties();
+        properties.setDirectory(directory);
+        store = new FileSystemAvatarStore(properties);
+    }
+
+    @Test
+    void test_put_stores_image_under_its_digest() throws Exception {
+        store.put(1, DIGEST, IMAGE);
+
+        assertTrue(store.exists(1, DIGEST));
+        // Content addressed, the user ID does not matter.
+        assertTrue(store.exists(2, DIGEST));
+        assertTrue(Files.exists(directory.resolve("9f").resolve("86").resolve(DIGEST)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertTrue(store.copyTo(1, DIGEST, out));
+        assertArrayEquals(IMAGE, out.toByteArray());
+    }
+
+    @Test
+    void test_put_leaves_no_temporary_files() throws Exception {
+        store.put(1, DIGEST, IMAGE);
+        store.put(2, DIGEST, IMAGE);
+
+        try (Stream<Path> files = Files.list(directory.resolve("9f").resolve("86"))) {
+            assertTrue(files.allMatch(file -> file.getFileName().toString().equals(DIGEST)));
+        }
+    }
+
+    @Test
+    void test_copyTo_returns_false_when_image_is_missing() throws Exception {
+        assertFalse(store.copyTo(1, DIGEST, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    void test_delete_removes_image() {
+        store.put(1, DIGEST, IMAGE);
+        store.delete(1, DIGEST);
+
+        assertFalse(store.exists(1, DIGEST));
+    }
+
+    @Test
+    void test_digest_must_be_sha256_hex() {
+        assertThrows(IllegalArgumentException.class, () -> store.exists(1, "../../etc/passwd"));
+    }
+
+}
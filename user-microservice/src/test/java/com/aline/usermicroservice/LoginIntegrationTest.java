@@ -17,15 +17,20 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.test.context.support.WithAnonymousUser;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -50,6 +55,9 @@ class LoginIntegrationTest {
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    EntityManager entityManager;
+
     @MockBean
     EmailService emailService;
 
@@ -75,6 +83,35 @@ class LoginIntegrationTest {
                 .andExpect(header().exists(HttpHeaders.AUTHORIZATION));
     }
 
+    @Test
+    void test_login_rehashes_password_with_outdated_work_factor() throws Exception {
+        createDefaultMemberUser("member_user", "P@ssword123");
+        User user = userRepository.findByUsername("member_user").orElse(null);
+        assertNotNull(user);
+        String outdatedHash = new BCryptPasswordEncoder(4).encode("P@ssword123");
+        user.setPassword(outdatedHash);
+        user.setEnabled(true);
+        userRepository.saveAndFlush(user);
+
+        AuthenticationRequest request = AuthenticationRequest.builder()
+                .username("member_user")
+                .password("P@ssword123")
+                .build();
+        mockMvc.perform(post("/login")
+                        .secure(true)
+                        .content(mapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        entityManager.clear();
+        String rehashed = userRepository.findByUsername("member_user")
+                .map(User::getPassword)
+                .orElse(null);
+        assertNotNull(rehashed);
+        assertNotEquals(outdatedHash, rehashed);
+        assertFalse(rehashed.startsWith("$2a$04$"));
+        assertTrue(new BCryptPasswordEncoder().matches("P@ssword123", rehashed));
+    }
+
     @Test
     void test_login_statusIsUnauthorized_when_login_is_incorrect() throws Exception {
         createDefaultMemberUser("member_user", "P@ssword123");
@@ -131,6 +168,14 @@ class LoginIntegrationTest {
                 .andExpect(status().isForbidden());
     }
 
+    @Test
+    @WithAnonymousUser
+    void test_getAvatarImage_statusIsForbidden_when_user_is_anonymous() throws Exception {
+        createDefaultMemberUser("member_user", "P@ssword123");
+        mockMvc.perform(get("/users/1/avatar").secure(true))
+                .andExpect(status().isForbidden());
+    }
+
     // Create a default member user for log in purposes.
     public void createDefaultMemberUser(String username, String password) throws Exception {
         MemberUserRegistration memberUserRegistration =
@@ -0,0 +1,107 @@
+package com.aline.usermicroservice;
+
+import com.aline.core.annotation.test.SpringBootIntegrationTest;
+import com.aline.core.aws.email.EmailService;
+import com.aline.core.dto.request.AdminUserRegistration;
+import com.aline.core.exception.unauthorized.IncorrectOTPException;
+import com.aline.core.model.user.User;
+import com.aline.core.repository.OneTimePasscodeRepository;
+import com.aline.core.repository.UserRepository;
+import com.aline.usermicroservice.service.ResetPasswordService;
+import com.aline.usermicroservice.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Fires wrong passcodes in parallel and checks that they cannot
+ * share one failed attempt between them. Not transactional so every
+ * attempt commits on its own.
+ */
+@SpringBootIntegrationTest
+@DisplayName("OTP Attempt Concurrency Test")
+class OtpAttemptConcurrencyTest {
+
+    private static final String USERNAME = "otp_racer";
+    private static final int GUESSES = 16;
+
+    @MockBean
+    EmailService emailService;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    ResetPasswordService passwordService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    OneTimePasscodeRepository otpRepository;
+
+    @BeforeEach
+    void setUp() {
+        userService.registerUser(AdminUserRegistration.builder()
+                .email("otp_racer@email.com")
+                .firstName("Admin")
+                .lastName("Boy")
+                .username(USERNAME)
+                .password("P@ssword123")
+                .phone("(222) 222-2222")
+                .build(), null);
+        User user = userRepository.findByUsername(USERNAME).orElseThrow(IllegalStateException::new);
+        passwordService.createOneTimePasscode("123456", user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        otpRepository.findByUserUsername(USERNAME).ifPresent(otpRepository::delete);
+        userRepository.findByUsername(USERNAME).ifPresent(userRepository::delete);
+    }
+
+    @Test
+    void test_parallelWrongGuesses_exhaust_the_otp() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(GUESSES);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<RuntimeException>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < GUESSES; i++) {
+                String guess = String.format("%06d", i);
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        passwordService.verifyOtp(guess, USERNAME);
+                        return null;
+                    } catch (RuntimeException e) {
+                        return e;
+                    }
+                }));
+            }
+            start.countDown();
+
+            for (Future<RuntimeException> result : results)
+                assertEquals(IncorrectOTPException.class, result.get().getClass());
+        } finally {
+            executor.shutdown();
+        }
+
+        assertFalse(otpRepository.findByUserUsername(USERNAME).isPresent());
+        assertThrows(IncorrectOTPException.class, () -> passwordService.verifyOtp("123456", USERNAME));
+    }
+
+}
@@ -0,0 +1,186 @@
+package com.aline.usermicroservice;
+
+import com.aline.core.aws.email.EmailService;
+import com.aline.core.aws.sms.SMSService;
+import com.aline.core.aws.sms.SMSType;
+import com.aline.usermicroservice.model.OutboxMessage;
+import com.aline.usermicroservice.model.OutboxMessageStatus;
+import com.aline.usermicroservice.repository.OutboxMessageRepository;
+import com.aline.usermicroservice.service.outbox.OutboxDispatcher;
+import com.aline.usermicroservice.service.outbox.OutboxService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "app.outbox.poll-enabled=false",
+        "app.outbox.max-attempts=2",
+        "app.outbox.initial-backoff=0s"
+})
+@Slf4j(topic = "Outbox Dispatcher Test")
+class OutboxDispatcherTest {
+
+    @Autowired
+    OutboxService outboxService;
+
+    @Autowired
+    OutboxDispatcher dispatcher;
+
+    @Autowired
+    OutboxMessageRepository repository;
+
+    @MockBean
+    EmailService emailService;
+
+    @MockBean
+    SMSService smsService;
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void test_dispatchPending_sends_queued_email_and_marks_it_sent() {
+        Map<String, String> variables = Collections.singletonMap("otp", "123456");
+        OutboxMessage message = outboxService.queueHtmlEmail("Password Reset", "user/password-reset", "test@email.com", variables);
+
+        assertEquals(1, dispatcher.dispatchPending());
+
+        verify(emailService, timeout(5000)).sendHtmlEmail("Password Reset", "user/password-reset", "test@email.com", variables);
+        OutboxMessage sent = awaitStatus(message.getId(), OutboxMessageStatus.SENT);
+        assertEquals(1, sent.getAttempts());
+        assertNull(sent.getVariables());
+    }
+
+    @Test
+    void test_dispatchPending_sends_queued_sms() {
+        OutboxMessage message = outboxService.queueSMSMessage("(222) 222-2222", "Hello", SMSType.TRANSACTIONAL);
+
+        dispatcher.dispatchPending();
+
+        verify(smsService, timeout(5000)).sendSMSMessage("(222) 222-2222", "Hello", SMSType.TRANSACTIONAL);
+        awaitStatus(message.getId(), OutboxMessageStatus.SENT);
+    }
+
+    @Test
+    void test_dispatchPending_does_not_claim_message_twice() {
+        doNothing().when(emailService).sendHtmlEmail(any(), any(), any(), any());
+        outboxService.queueHtmlEmail("Subject", "template", "test@email.com", null);
+
+        assertEquals(1, dispatcher.dispatchPending());
+        assertEquals(0, dispatcher.dispatchPending());
+    }
+
+    @Test
+    void test_dispatchPending_retries_and_then_marks_message_failed() {
+        doThrow(new RuntimeException("Provider unavailable"))
+                .when(emailService).sendHtmlEmail(any(), any(), any(), any());
+        Map<String, String> variables = Collections.singletonMap("otp", "123456");
+        OutboxMessage message = outboxService.queueHtmlEmail("Subject", "template", "test@email.com", variables);
+
+        dispatcher.dispatchPending();
+        OutboxMessage retrying = awaitStatus(message.getId(), OutboxMessageStatus.PENDING, 1);
+        assertEquals("Provider unavailable", retrying.getLastError());
+        assertTrue(!retrying.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertEquals(variables, retrying.getVariables());
+
+        dispatcher.dispatchPending();
+        OutboxMessage failed = awaitStatus(message.getId(), OutboxMessageStatus.FAILED, 2);
+
+        verify(emailService, timeout(5000).times(2)).sendHtmlEmail(eq("Subject"), any(), any(), any());
+        assertEquals(2, failed.getAttempts());
+        assertNull(failed.getContent());
+        assertNull(failed.getVariables());
+    }
+
+    @Test
+    void test_dispatchPending_redacts_failed_sms() {
+        doThrow(new RuntimeException("Provider unavailable"))
+                .when(smsService).sendSMSMessage(any(), any(), any());
+        OutboxMessage message = outboxService.queueSMSMessage("(222) 222-2222",
+                "Here is your password reset one-time passcode: 123456", SMSType.TRANSACTIONAL);
+
+        dispatcher.dispatchPending();
+        awaitStatus(message.getId(), OutboxMessageStatus.PENDING, 1);
+        dispatcher.dispatchPending();
+        OutboxMessage failed = awaitStatus(message.getId(), OutboxMessageStatus.FAILED, 2);
+
+        assertNull(failed.getContent());
+        assertEquals("(222) 222-2222", failed.getRecipient());
+    }
+
+    @Test
+    void test_deliver_does_not_overwrite_a_newer_claim() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            sending.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(emailService).sendHtmlEmail(any(), any(), any(), any());
+        OutboxMessage message = outboxService.queueHtmlEmail("Subject", "template", "test@email.com", null);
+
+        dispatcher.dispatchPending();
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+
+        // Another replica claims the message as if the lease had expired.
+        LocalDateTime later = LocalDateTime.now().plusHours(1);
+        assertEquals(1, repository.claim(message.getId(), Collections.singletonList(OutboxMessageStatus.PROCESSING),
+                OutboxMessageStatus.PROCESSING, later, later.plusMinutes(5)));
+        release.countDown();
+
+        long deadline = System.currentTimeMillis() + 500;
+        while (System.currentTimeMillis() < deadline) {
+            OutboxMessage current = repository.findById(message.getId()).orElseThrow(IllegalStateException::new);
+            assertEquals(OutboxMessageStatus.PROCESSING, current.getStatus());
+            assertEquals(0, current.getAttempts());
+            Thread.sleep(20);
+        }
+    }
+
+    private OutboxMessage awaitStatus(long id, OutboxMessageStatus status) {
+        return awaitStatus(id, status, 1);
+    }
+
+    // Wait for a worker thread to record the outcome of a delivery.
+    private OutboxMessage awaitStatus(long id, OutboxMessageStatus status, int attempts) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            OutboxMessage message = repository.findById(id).orElse(null);
+            if (message != null && message.getStatus() == status && message.getAttempts() == attempts)
+                return message;
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return fail(String.format("Outbox message %d did not reach status %s.", id, status));
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.aline.usermicroservice;
+
+import com.aline.usermicroservice.config.PasswordHashingProperties;
+import com.aline.usermicroservice.controller.ExceptionHandlerAdvice;
+import com.aline.usermicroservice.exception.TooManyRequestsException;
+import com.aline.usermicroservice.security.PasswordHashingPool;
+import com.aline.usermicroservice.security.PooledPasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Password Hashing Pool Test")
+class PasswordHashingPoolTest {
+
+    private PasswordHashingPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null)
+            pool.shutdown();
+    }
+
+    @Test
+    void test_call_throws_tooManyRequests_when_pool_is_saturated() throws Exception {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setWorkers(1);
+        properties.setQueueCapacity(1);
+        properties.setMaxWait(Duration.ofSeconds(10));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        pool = new PasswordHashingPool(properties, meterRegistry);
+
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            // One hash runs and one waits in the queue.
+            Future<?> running = callers.submit(() -> pool.call("test", () -> {
+                release.await();
+                return null;
+            }));
+            Future<?> queued = callers.submit(() -> pool.call("test", () -> {
+                release.await();
+                return null;
+            }));
+            while (meterRegistry.get("password.hashing.queue.size").gauge().value() < 1)
+                Thread.sleep(10);
+
+            TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+                    () -> pool.call("test", () -> true));
+            assertEquals(HttpStatus.TOO_MANY_REQUESTS,
+                    new ExceptionHandlerAdvice().handleTooManyRequestsException(e).getStatusCode());
+            assertEquals(1, meterRegistry.get("password.hashing.rejected").counter().count());
+
+            release.countDown();
+            running.get();
+            queued.get();
+        } finally {
+            release.countDown();
+            callers.shutdown();
+        }
+    }
+
+    @Test
+    void test_encode_uses_configured_work_factor_when_higher_than_core() {
+        PooledPasswordEncoder encoder = encoder(5, 6, true);
+        assertTrue(encoder.encode("P@ssword123").startsWith("$2a$06$"));
+    }
+
+    @Test
+    void test_encode_keeps_core_work_factor_when_configured_lower() {
+        PooledPasswordEncoder encoder = encoder(6, 4, true);
+        assertTrue(encoder.encode("P@ssword123").startsWith("$2a$06$"));
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("P@ssword123")));
+    }
+
+    @Test
+    void test_upgradeEncoding_only_when_rehashOnLogin_is_enabled() {
+        String outdated = new BCryptPasswordEncoder(4).encode("P@ssword123");
+        assertTrue(encoder(4, 5, true).upgradeEncoding(outdated));
+        assertFalse(encoder(4, 5, false).upgradeEncoding(outdated));
+    }
+
+    private PooledPasswordEncoder encoder(int coreStrength, int strength, boolean rehashOnLogin) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setWorkers(1);
+        properties.setStrength(strength);
+        properties.setRehashOnLogin(rehashOnLogin);
+        if (pool != null)
+            pool.shutdown();
+        pool = new PasswordHashingPool(properties, new SimpleMeterRegistry());
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Collections.<String, Object>singletonMap("pool", pool));
+        return new PooledPasswordEncoder(new BCryptPasswordEncoder(coreStrength), beanFactory.getBeanProvider(PasswordHashingPool.class));
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.aline.usermicroservice;
+
+import com.aline.core.annotation.test.SpringBootIntegrationTest;
+import com.aline.core.annotation.test.SpringTestProperties;
+import com.aline.core.aws.email.EmailService;
+import com.aline.core.dto.request.ResetPasswordAuthentication;
+import com.aline.core.dto.response.ContactMethod;
+import com.aline.usermicroservice.config.RateLimitProperties;
+import com.aline.usermicroservice.ratelimit.InMemoryRateLimitStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import javax.transaction.Transactional;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootIntegrationTest(SpringTestProperties.DISABLE_WEB_SECURITY)
+@TestPropertySource(properties = {
+        "app.rate-limit.enabled=true",
+        "app.rate-limit.otp-request.ip.capacity=3",
+        "app.rate-limit.otp-request.identity.capacity=2"
+})
+@DisplayName("Rate Limiter Test")
+@Transactional
+class RateLimiterTest {
+
+    @MockBean
+    EmailService emailService;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper mapper;
+
+    private ResultActions requestOtp(String username, String ip) throws Exception {
+        ResetPasswordAuthentication authentication = ResetPasswordAuthentication.builder()
+                .username(username)
+                .contactMethod(ContactMethod.PHONE)
+                .build();
+        return mockMvc.perform(post("/users/password-reset-otp")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(authentication))
+                .with(request -> {
+                    request.setRemoteAddr(ip);
+                    return request;
+                }));
+    }
+
+    @Test
+    void test_passwordResetOtp_status_isTooManyRequests_when_username_isOverItsLimit() throws Exception {
+        requestOtp("limited_user", "10.0.0.1").andExpect(status().isNotFound());
+        requestOtp("limited_user", "10.0.0.2").andExpect(status().isNotFound());
+        requestOtp("limited_user", "10.0.0.3").andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void test_passwordResetOtp_status_isTooManyRequests_when_ip_isOverItsLimit() throws Exception {
+        requestOtp("ip_user_1", "10.0.1.1").andExpect(status().isNotFound());
+        requestOtp("ip_user_2", "10.0.1.1").andExpect(status().isNotFound());
+        requestOtp("ip_user_3", "10.0.1.1").andExpect(status().isNotFound());
+        requestOtp("ip_user_4", "10.0.1.1").andExpect(status().isTooManyRequests());
+        requestOtp("ip_user_4", "10.0.1.2").andExpect(status().isNotFound());
+    }
+
+    @Test
+    void test_inMemoryStore_refills_after_the_interval() throws Exception {
+        InMemoryRateLimitStore store = new InMemoryRateLimitStore(new RateLimitProperties());
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit(2, Duration.ofMillis(200));
+
+        assertTrue(store.tryConsume("key", limit));
+        assertTrue(store.tryConsume("key", limit));
+        assertFalse(store.tryConsume("key", limit));
+
+        Thread.sleep(150);
+        assertTrue(store.tryConsume("key", limit));
+        assertFalse(store.tryConsume("key", limit));
+    }
+
+}
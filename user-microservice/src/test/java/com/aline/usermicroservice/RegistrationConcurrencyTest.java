@@ -0,0 +1,134 @@
+package com.aline.usermicroservice;
+
+import com.aline.core.annotation.test.SpringBootIntegrationTest;
+import com.aline.core.aws.email.EmailService;
+import com.aline.core.dto.request.AdminUserRegistration;
+import com.aline.core.dto.request.MemberUserRegistration;
+import com.aline.core.dto.request.UserRegistration;
+import com.aline.core.exception.ConflictException;
+import com.aline.core.exception.conflict.EmailConflictException;
+import com.aline.core.exception.conflict.UsernameConflictException;
+import com.aline.core.repository.UserRepository;
+import com.aline.usermicroservice.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Fires duplicate registrations in parallel and checks that the
+ * unique constraints let exactly one of them through. Not transactional
+ * so every registration commits on its own.
+ */
+@SpringBootIntegrationTest
+@DisplayName("Registration Concurrency Test")
+class RegistrationConcurrencyTest {
+
+    private static final int REGISTRATIONS = 8;
+
+    @MockBean
+    EmailService emailService;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    private final List<String> usernames = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        usernames.forEach(username -> userRepository.findByUsername(username).ifPresent(userRepository::delete));
+        usernames.clear();
+    }
+
+    @Test
+    void test_parallelRegistrations_with_same_username_register_one_user() throws Exception {
+        List<RuntimeException> failures = registerInParallel(i -> admin("racer", "racer" + i + "@email.com"));
+
+        assertEquals(REGISTRATIONS - 1, failures.size());
+        failures.forEach(failure -> assertEquals(UsernameConflictException.class, failure.getClass()));
+    }
+
+    @Test
+    void test_parallelRegistrations_with_same_email_register_one_user() throws Exception {
+        List<RuntimeException> failures = registerInParallel(i -> admin("racer" + i, "racer@email.com"));
+
+        assertEquals(REGISTRATIONS - 1, failures.size());
+        failures.forEach(failure -> assertEquals(EmailConflictException.class, failure.getClass()));
+    }
+
+    @Test
+    @Sql(scripts = "classpath:scripts/members.sql")
+    @Sql(statements = {"DELETE FROM member WHERE id = 1", "DELETE FROM applicant WHERE id = 1"},
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void test_parallelRegistrations_with_same_membership_register_one_user() throws Exception {
+        List<RuntimeException> failures = registerInParallel(i -> MemberUserRegistration.builder()
+                .username("racer" + i)
+                .password("P@ssword123")
+                .membershipId("12345678")
+                .lastFourOfSSN("2222")
+                .build());
+
+        assertEquals(REGISTRATIONS - 1, failures.size());
+        failures.forEach(failure -> assertEquals(ConflictException.class, failure.getClass()));
+    }
+
+    private AdminUserRegistration admin(String username, String email) {
+        return AdminUserRegistration.builder()
+                .email(email)
+                .firstName("Admin")
+                .lastName("Boy")
+                .username(username)
+                .password("P@ssword123")
+                .phone("(222) 222-2222")
+                .build();
+    }
+
+    private List<RuntimeException> registerInParallel(IntFunction<UserRegistration> registration)
+            throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(REGISTRATIONS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<RuntimeException>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < REGISTRATIONS; i++) {
+                UserRegistration next = registration.apply(i);
+                usernames.add(next.getUsername());
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        userService.registerUser(next, null);
+                        return null;
+                    } catch (RuntimeException e) {
+                        return e;
+                    }
+                }));
+            }
+            start.countDown();
+
+            List<RuntimeException> failures = new ArrayList<>();
+            for (Future<RuntimeException> result : results) {
+                if (result.get() != null)
+                    failures.add(result.get());
+            }
+            return failures;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
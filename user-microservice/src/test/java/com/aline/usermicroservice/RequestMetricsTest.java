@@ -0,0 +1,104 @@
+package com.aline.usermicroservice;
+
+import com.aline.core.annotation.test.SpringBootIntegrationTest;
+import com.aline.core.annotation.test.SpringTestProperties;
+import com.aline.core.aws.email.EmailService;
+import com.aline.core.dto.request.MemberUserRegistration;
+import com.aline.core.dto.response.UserResponse;
+import com.aline.usermicroservice.service.UserService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doNothing;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootIntegrationTest(SpringTestProperties.DISABLE_WEB_SECURITY)
+@DisplayName("Request Metrics Test")
+@Sql(scripts = "classpath:scripts/members.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Transactional
+class RequestMetricsTest {
+
+    @MockBean
+    EmailService emailService;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    long userId;
+
+    @BeforeEach
+    void setUp() {
+        doNothing().when(emailService).sendHtmlEmail(any(), any(), any(), any());
+        UserResponse user = userService.registerUser(MemberUserRegistration.builder()
+                .username("metrics_user")
+                .password("P@ssword123")
+                .membershipId("12345678")
+                .lastFourOfSSN("2222")
+                .build(), null);
+        userId = user.getId();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void test_getUserById_records_statements_and_service_duration() throws Exception {
+        mockMvc.perform(get("/users/{id}", userId))
+                .andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry.find("http.server.requests.statements")
+                .tags("method", "GET", "uri", "/users/{id}")
+                .summary();
+        assertNotNull(statements);
+        assertTrue(statements.count() >= 1);
+
+        Timer passwordEncoder = meterRegistry.find("http.server.requests.dependency")
+                .tags("uri", "/users/{id}", "dependency", "password_encoder")
+                .timer();
+        assertNotNull(passwordEncoder);
+
+        Timer service = meterRegistry.find("user.service.duration")
+                .tags("class", "UserService", "method", "getUserById", "exception", "none")
+                .timer();
+        assertNotNull(service);
+        assertTrue(service.count() >= 1);
+    }
+
+    @Test
+    void test_registerUser_records_password_encoder_time() throws Exception {
+        Timer service = meterRegistry.find("user.service.duration")
+                .tags("class", "UserService", "method", "registerUser")
+                .timer();
+        assertNotNull(service);
+        assertTrue(service.count() >= 1);
+
+        Timer hashing = meterRegistry.find("password.hashing.duration")
+                .tags("operation", "encode")
+                .timer();
+        assertNotNull(hashing);
+    }
+
+}
@@ -0,0 +1,178 @@
+package com.aline.usermicroservice;
+
+import com.aline.core.dto.response.UserResponse;
+import com.aline.core.model.user.User;
+import com.aline.usermicroservice.cache.UserCache;
+import com.aline.usermicroservice.cache.UserExistenceFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Starts two application contexts (nodes) against the same
+ * database and checks that an eviction on one node reaches
+ * the user cache of the other, and a registration its
+ * existence filter.
+ */
+@Slf4j(topic = "User Cache Invalidation Test")
+@DisplayName("User Cache Invalidation Test")
+class UserCacheInvalidationTest {
+
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+        nodes.clear();
+    }
+
+    @Test
+    void test_jdbcInvalidation_evicts_user_on_other_node() {
+        UserCache nodeA = startNode("jdbc");
+        UserCache nodeB = startNode("jdbc");
+        assertConverges(nodeA, nodeB);
+    }
+
+    @Test
+    void test_memoryInvalidation_evicts_user_on_other_node() {
+        UserCache nodeA = startNode("memory");
+        UserCache nodeB = startNode("memory");
+        assertConverges(nodeA, nodeB);
+    }
+
+    @Test
+    void test_jdbcInvalidation_applies_invalidation_that_commits_late() throws Exception {
+        ConfigurableApplicationContext contextA = startContext("jdbc");
+        UserCache nodeA = contextA.getBean(UserCache.class);
+        UserCache nodeB = startNode("jdbc");
+        nodeB.putResponse(UserResponse.builder().id(42L).username("late_user").build());
+        nodeB.putResponse(UserResponse.builder().id(43L).username("early_user").build());
+
+        // The first invalidation gets the lower ID but commits after the second.
+        TransactionTemplate transaction = new TransactionTemplate(contextA.getBean(PlatformTransactionManager.class));
+        CountDownLatch published = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> late = executor.submit(() -> transaction.executeWithoutResult(status -> {
+                nodeA.evict(42L, "late_user");
+                published.countDown();
+                try {
+                    commit.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(published.await(5, TimeUnit.SECONDS));
+            nodeA.evict(43L, "early_user");
+            awaitEvicted(nodeB, 43L);
+            assertNotNull(nodeB.getResponse(42L));
+
+            commit.countDown();
+            late.get(5, TimeUnit.SECONDS);
+            awaitEvicted(nodeB, 42L);
+        } finally {
+            commit.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void test_jdbcInvalidation_adds_registered_username_to_other_node() {
+        UserExistenceFilter nodeA = startContext("jdbc").getBean(UserExistenceFilter.class);
+        UserExistenceFilter nodeB = startContext("jdbc").getBean(UserExistenceFilter.class);
+        nodeB.rebuild();
+        assertFalse(nodeB.mightContainUsername("remote_user"));
+
+        User user = mock(User.class);
+        when(user.getId()).thenReturn(43L);
+        when(user.getUsername()).thenReturn("remote_user");
+        nodeA.add(user);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!nodeB.mightContainUsername("remote_user")) {
+            if (System.currentTimeMillis() > deadline)
+                fail("The registered username did not reach the other node.");
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    private void assertConverges(UserCache nodeA, UserCache nodeB) {
+        UserResponse response = UserResponse.builder()
+                .id(42L)
+                .username("cached_user")
+                .build();
+        nodeA.putResponse(response);
+        nodeB.putResponse(response);
+        assertNotNull(nodeB.getResponse("cached_user"));
+
+        nodeA.evict(42L, "cached_user");
+
+        assertNull(nodeA.getResponse(42L));
+        awaitEvicted(nodeB, 42L);
+        assertNull(nodeB.getResponse("cached_user"));
+    }
+
+    // The JDBC broadcaster polls every 100ms in these nodes.
+    private void awaitEvicted(UserCache cache, long id) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            if (cache.getResponse(id) == null)
+                return;
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        fail(String.format("User %d was not evicted on the other node.", id));
+    }
+
+    private UserCache startNode(String invalidation) {
+        return startContext(invalidation).getBean(UserCache.class);
+    }
+
+    private ConfigurableApplicationContext startContext(String invalidation) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(UserMicroserviceApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:invalidationdb;MODE=MYSQL;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=update",
+                        "spring.jpa.show-sql=false",
+                        "app.outbox.poll-enabled=false",
+                        "app.cache.users.invalidation=" + invalidation,
+                        "app.cache.users.invalidation-poll-interval=100")
+                .run();
+        nodes.add(context);
+        return context;
+    }
+
+}
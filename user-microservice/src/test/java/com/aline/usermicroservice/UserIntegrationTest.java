@@ -24,6 +24,14 @@ import com.aline.core.repository.MemberRepository;
 import com.aline.core.repository.UserRegistrationTokenRepository;
 import com.aline.core.repository.UserRepository;
 import com.aline.core.util.RandomNumberGenerator;
+import com.aline.usermicroservice.config.ConfirmationTokenProperties;
+import com.aline.usermicroservice.dto.request.BulkUserRegistration;
+import com.aline.usermicroservice.dto.request.UserBatchRequest;
+import com.aline.usermicroservice.security.ConfirmationTokenSigner;
+import com.aline.usermicroservice.service.AvatarService;
+import com.aline.usermicroservice.service.UserExportFormat;
+import com.aline.usermicroservice.service.UserExportService;
+import com.aline.usermicroservice.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
@@ -31,22 +39,41 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
 
+import javax.imageio.ImageIO;
+import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
 
 import static com.aline.core.dto.request.MemberUserRegistration.MemberUserRegistrationBuilder;
+import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -109,6 +136,25 @@ class UserIntegrationTest {
 
     }
 
+    @Test
+    void test_getUserById_status_isNotModified_when_etag_matches() throws Exception {
+        User user = createDefaultMemberUser("look4me");
+
+        String etag = mockMvc.perform(get("/users/{id}", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/users/{id}", user.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/users/{id}", user.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk());
+    }
+
     @Test
     void test_getUserById_status_isNotFound_when_userDoesNotExist() throws Exception {
         mockMvc.perform(get("/users/9999"))
@@ -362,6 +408,88 @@ class UserIntegrationTest {
         }
     }
 
+    @Nested
+    @DisplayName("Signed Registration Confirmation")
+    class SignedRegistrationConfirmation {
+
+        @Autowired
+        ConfirmationTokenSigner tokenSigner;
+
+        @Autowired
+        UserService userService;
+
+        @Autowired
+        EntityManager entityManager;
+
+        @Value("${app.confirmation-token.hmac-key}")
+        String hmacKey;
+
+        private void confirm(String token, ResultMatcher expected) throws Exception {
+            mockMvc.perform(post("/users/confirmation")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(ConfirmUserRegistration.builder()
+                                    .token(token)
+                                    .build())))
+                    .andExpect(expected);
+        }
+
+        @Test
+        void test_confirmUserRegistration_enables_user_once_when_signed_token_is_valid() throws Exception {
+            User user = createDefaultMemberUser("testboy");
+            String token = tokenSigner.sign(user);
+
+            mockMvc.perform(post("/users/confirmation")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(ConfirmUserRegistration.builder()
+                                    .token(token)
+                                    .build())))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.username").value("testboy"))
+                    .andExpect(jsonPath("$.enabled").value(true));
+
+            confirm(token, status().isUnprocessableEntity());
+        }
+
+        @Test
+        @WithMockUser
+        void test_confirmUserRegistration_status_isUnprocessableEntity_when_signed_token_is_replayed_after_disable() throws Exception {
+            User user = createDefaultMemberUser("testboy");
+            String token = tokenSigner.sign(user);
+            confirm(token, status().isOk());
+
+            // The confirmation was a bulk update, so drop the stale entity before disabling.
+            entityManager.clear();
+            userService.disableUserProfile(user.getId(), false);
+            entityManager.flush();
+
+            confirm(token, status().isUnprocessableEntity());
+
+            entityManager.clear();
+            assertFalse(userRepository.findById(user.getId()).orElseThrow(UserNotFoundException::new).isEnabled());
+        }
+
+        @Test
+        void test_confirmUserRegistration_status_isNotFound_when_signed_token_is_tampered() throws Exception {
+            User user = createDefaultMemberUser("testboy");
+            String signature = tokenSigner.sign(user).split("\\.")[1];
+            String payload = new String(Base64.getUrlDecoder().decode(tokenSigner.sign(user).split("\\.")[0]), StandardCharsets.UTF_8);
+            String tampered = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(payload.replace("testboy", "admin").getBytes(StandardCharsets.UTF_8));
+
+            confirm(tampered + "." + signature, status().isNotFound());
+        }
+
+        @Test
+        void test_confirmUserRegistration_status_isGone_when_signed_token_is_expired() throws Exception {
+            User user = createDefaultMemberUser("testboy");
+            ConfirmationTokenProperties expired = new ConfirmationTokenProperties();
+            expired.setTtl(Duration.ofHours(-1));
+
+            confirm(new ConfirmationTokenSigner(hmacKey, expired).sign(user), status().isGone());
+        }
+
+    }
+
     @Nested
     @DisplayName("Password Reset Test")
     class PasswordResetTest {
@@ -487,6 +615,43 @@ class UserIntegrationTest {
                     .andExpect(status().isUnauthorized());
         }
 
+        @Test
+        void status_isUnauthorized_when_OTP_is_correct_after_maxAttempts() throws Exception {
+
+            createDefaultMemberUser("john_smith");
+
+            ResetPasswordAuthentication authentication = ResetPasswordAuthentication
+                    .builder()
+                    .username("john_smith")
+                    .contactMethod(ContactMethod.PHONE).build();
+
+            mockMvc.perform(post("/users/password-reset-otp")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(authentication)))
+                    .andExpect(status().isOk());
+
+            String wrongBody = mapper.writeValueAsString(OtpAuthentication.builder()
+                    .username("john_smith")
+                    .otp("654321").build());
+
+            // Default maximum is 5 attempts
+            for (int i = 0; i < 5; i++) {
+                mockMvc.perform(post("/users/otp-authentication")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(wrongBody))
+                        .andExpect(status().isUnauthorized());
+            }
+
+            String correctBody = mapper.writeValueAsString(OtpAuthentication.builder()
+                    .username("john_smith")
+                    .otp("123456").build());
+
+            mockMvc.perform(post("/users/otp-authentication")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(correctBody))
+                    .andExpect(status().isUnauthorized());
+        }
+
         @Test
         void status_isNotFound_when_user_does_not_exists() throws Exception {
 
@@ -577,6 +742,55 @@ class UserIntegrationTest {
                 assertEquals("Changed", member.getApplicant().getLastName());
             }
 
+            @Test
+            void test_getUserProfile_etag_changes_after_update() throws Exception {
+                MemberUser user = (MemberUser) createDefaultMemberUser("test_boy");
+
+                String etag = mockMvc.perform(get("/users/{id}/profile", user.getId()))
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+                assertNotNull(etag);
+
+                mockMvc.perform(get("/users/{id}/profile", user.getId())
+                                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                        .andExpect(status().isNotModified());
+
+                mockMvc.perform(put("/users/{id}/profile", user.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(UserProfileUpdate.builder()
+                                        .lastName("Changed")
+                                        .build())))
+                        .andExpect(status().isNoContent());
+
+                mockMvc.perform(get("/users/{id}/profile", user.getId())
+                                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.lastName").value("Changed"));
+            }
+
+            @Test
+            void test_getUserProfile_returns_updated_profile_after_update() throws Exception {
+                MemberUser user = (MemberUser) createDefaultMemberUser("test_boy");
+
+                // Cache the profile
+                mockMvc.perform(get("/users/{id}/profile", user.getId()))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.lastName").value("Smith"));
+
+                UserProfileUpdate updateProfile = UserProfileUpdate.builder()
+                        .lastName("Changed")
+                        .build();
+
+                mockMvc.perform(put("/users/{id}/profile", user.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(updateProfile)))
+                        .andExpect(status().isNoContent());
+
+                mockMvc.perform(get("/users/{id}/profile", user.getId()))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.lastName").value("Changed"));
+            }
+
             @Test
             void test_statusIsNoContent_when_profileExists_and_requestToChangeUsernameIsValid() throws Exception {
                 MemberUser user = (MemberUser) createDefaultMemberUser("test_boy");
@@ -641,6 +855,492 @@ class UserIntegrationTest {
 
     }
 
+    @Nested
+    @DisplayName("Keyset Pagination")
+    class KeysetPaginationTests {
+
+        @BeforeEach
+        void setUp() throws Exception {
+            createDefaultMemberUser("member_user");
+            createAdminUser("admin_user1", "admin1@email.com");
+            createAdminUser("admin_user2", "admin2@email.com");
+        }
+
+        @Test
+        @WithMockUser(username = "admin", authorities = "administrator")
+        void test_getAllUsersAfter_walks_every_user_once() throws Exception {
+            MvcResult firstPage = mockMvc.perform(get("/users")
+                            .param("after", "")
+                            .param("size", "2")
+                            .param("count", "true"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content.length()").value(2))
+                    .andExpect(jsonPath("$.content[0].username").value("member_user"))
+                    .andExpect(jsonPath("$.content[1].username").value("admin_user1"))
+                    .andExpect(jsonPath("$.hasNext").value(true))
+                    .andExpect(jsonPath("$.totalElements").value(3))
+                    .andReturn();
+
+            String cursor = mapper.readTree(firstPage.getResponse().getContentAsString())
+                    .get("nextCursor").asText();
+
+            mockMvc.perform(get("/users")
+                            .param("after", cursor)
+                            .param("size", "2"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content.length()").value(1))
+                    .andExpect(jsonPath("$.content[0].username").value("admin_user2"))
+                    .andExpect(jsonPath("$.hasNext").value(false))
+                    .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                    .andExpect(jsonPath("$.totalElements").doesNotExist());
+        }
+
+        @Test
+        @WithMockUser(username = "admin", authorities = "administrator")
+        void test_getAllUsersAfter_status_isBadRequest_when_cursor_isInvalid() throws Exception {
+            mockMvc.perform(get("/users")
+                            .param("after", "not-a-cursor"))
+                    .andExpect(status().isBadRequest());
+        }
+
+    }
+
+    @Nested
+    @DisplayName("User Export")
+    class UserExportTests {
+
+        @Autowired
+        UserExportService exportService;
+
+        @BeforeEach
+        void setUp() throws Exception {
+            createDefaultMemberUser("member_user");
+            createAdminUser("admin_user", "admin@email.com");
+        }
+
+        @Test
+        @WithMockUser(username = "admin", authorities = "administrator")
+        void test_exportUsers_writes_one_json_object_per_line() throws Exception {
+            String[] lines = export(UserExportFormat.NDJSON).split("\n");
+
+            assertEquals(2, lines.length);
+            assertEquals("member_user", mapper.readTree(lines[0]).get("username").asText());
+            assertEquals("John", mapper.readTree(lines[0]).get("firstName").asText());
+            assertEquals("admin_user", mapper.readTree(lines[1]).get("username").asText());
+        }
+
+        @Test
+        @WithMockUser(username = "admin", authorities = "administrator")
+        void test_exportUsers_writes_csv_with_header() throws Exception {
+            String[] lines = export(UserExportFormat.CSV).split("\n");
+
+            assertEquals(3, lines.length);
+            assertEquals("id,username,firstName,lastName,email,role,enabled,memberId,membershipId", lines[0]);
+            assertTrue(lines[1].contains(",member_user,John,Smith,johnsmith@email.com,"));
+            assertTrue(lines[2].contains(",admin_user,Admin,Boy,admin@email.com,"));
+        }
+
+        @Test
+        @WithMockUser(username = "admin", authorities = "administrator")
+        void test_exportUsers_status_isBadRequest_when_format_isNotSupported() throws Exception {
+            mockMvc.perform(get("/users/export").param("format", "xml"))
+                    .andExpect(status().isBadRequest());
+        }
+
+        private String export(UserExportFormat format) throws Exception {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            exportService.exportUsers("", format).writeTo(out);
+            return out.toString(StandardCharsets.UTF_8.name());
+        }
+
+    }
+
+    @Nested
+    @DisplayName("Bulk Registration Tests")
+    class BulkRegistrationTests {
+
+        private AdminUserRegistration adminRegistration(String username, String email) {
+            return AdminUserRegistration.builder()
+                    .email(email)
+                    .firstName("Admin")
+                    .lastName("Boy")
+                    .username(username)
+                    .password("P@ssword123")
+                    .phone("(222) 222-2222")
+                    .build();
+        }
+
+        private MemberUserRegistration memberRegistration(String username, String lastFourOfSSN) {
+            return MemberUserRegistration.builder()
+                    .username(username)
+                    .password("P@ssword123")
+                    .membershipId("12345678")
+                    .lastFourOfSSN(lastFourOfSSN)
+                    .build();
+        }
+
+        @Test
+        @WithMockUser(username = "admin", authorities = "administrator")
+        void test_registerUsers_reports_a_result_per_registration() throws Exception {
+            BulkUserRegistration request = BulkUserRegistration.builder()
+                    .registrations(Arrays.asList(
+                            adminRegistration("bulk_admin", "bulk_admin@email.com"),
+                            memberRegistration("bulk_member", "2222"),
+                            adminRegistration("bulk_admin", "other_admin@email.com"),
+                            memberRegistration("bulk_member_2", "5555"),
+                            adminRegistration("123invalid", "invalid@email.com")))
+                    .build();
+
+            mockMvc.perform(post("/users/registration/bulk")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(request)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.registered").value(2))
+                    .andExpect(jsonPath("$.rejected").value(3))
+                    .andExpect(jsonPath("$.results[0].status").value(201))
+                    .andExpect(jsonPath("$.results[0].user.username").value("bulk_admin"))
+                    .andExpect(jsonPath("$.results[1].status").value(201))
+                    .andExpect(jsonPath("$.results[1].user.firstName").value("John"))
+                    .andExpect(jsonPath("$.results[2].status").value(409))
+                    .andExpect(jsonPath("$.results[3].status").value(404))
+                    .andExpect(jsonPath("$.results[4].status").value(400))
+                    .andExpect(jsonPath("$.results[4].index").value(4));
+
+            assertTrue(userRepository.findByUsername("bulk_admin").isPresent());
+            assertTrue(userRepository.findByUsername("bulk_member").isPresent());
+            assertFalse(userRepository.findByUsername("bulk_member_2").isPresent());
+            assertFalse(userRepository.findByUsername("123invalid").isPresent());
+        }
+
+        @Test
+        @WithMockUser(username = "admin", authorities = "administrator")
+        void test_registerUsers_rejects_registrations_that_conflict_with_existing_users() throws Exception {
+            createDefaultMemberUser("member_user");
+            createAdminUser("admin_user", "admin@email.com");
+
+            BulkUserRegistration request = BulkUserRegistration.builder()
+                    .registrations(Arrays.asList(
+                            adminRegistration("member_user", "new_admin@email.com"),
+                            adminRegistration("new_admin", "admin@email.com"),
+                            memberRegistration("new_member", "2222")))
+                    .build();
+
+            mockMvc.perform(post("/users/registration/bulk")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(request)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.registered").value(0))
+                    .andExpect(jsonPath("$.results[0].status").value(409))
+                    .andExpect(jsonPath("$.results[1].status").value(409))
+                    .andExpect(jsonPath("$.results[2].status").value(409));
+        }
+
+        @Test
+        @WithMockUser(username = "admin", authorities = "administrator")
+        void test_registerUsers_rejects_a_username_repeated_across_user_types() throws Exception {
+            BulkUserRegistration request = BulkUserRegistration.builder()
+                    .registrations(Arrays.asList(
+                            memberRegistration("shared_name", "2222"),
+                            adminRegistration("shared_name", "shared_admin@email.com")))
+                    .build();
+
+            mockMvc.perform(post("/users/registration/bulk")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(request)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.registered").value(1))
+                    .andExpect(jsonPath("$.results[0].status").value(201))
+                    .andExpect(jsonPath("$.results[0].user.firstName").value("John"))
+                    .andExpect(jsonPath("$.results[1].status").value(409));
+        }
+
+        @Test
+        @WithMockUser(username = "admin", authorities = "administrator")
+        void test_registerUsers_status_isBadRequest_when_registrations_areEmpty() throws Exception {
+            mockMvc.perform(post("/users/registration/bulk")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"registrations\":[]}"))
+                    .andExpect(status().isBadRequest());
+        }
+
+    }
+
+    @Nested
+    @DisplayName("Batch User Lookup Tests")
+    class BatchUserLookupTests {
+
+        private long memberId;
+        private long adminId;
+
+        @BeforeEach
+        void setUp() throws Exception {
+            memberId = createDefaultMemberUser("member_user").getId();
+            createAdminUser("admin_user", "admin@email.com");
+            adminId = userRepository.findByUsername("admin_user").orElseThrow(UserNotFoundException::new).getId();
+        }
+
+        @Test
+        @WithMockUser(username = "admin", authorities = "administrator")
+        void test_getUsersByIds_returns_users_in_requested_order_without_missing_ids() throws Exception {
+            UserBatchRequest request = UserBatchRequest.builder()
+                    .ids(Arrays.asList(adminId, 9999L, memberId, adminId))
+                    .build();
+
+            mockMvc.perform(post("/users/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(request)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(2))
+                    .andExpect(jsonPath("$[0].username").value("admin_user"))
+                    .andExpect(jsonPath("$[1].username").value("member_user"))
+                    .andExpect(jsonPath("$[1].firstName").value("John"));
+        }
+
+        @Test
+        @WithMockUser(username = "member_user")
+        void test_getUsersByIds_leaves_out_users_that_cannot_be_accessed() throws Exception {
+            UserBatchRequest request = UserBatchRequest.builder()
+                    .ids(Arrays.asList(adminId, memberId))
+                    .build();
+
+            mockMvc.perform(post("/users/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(request)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(1))
+                    .andExpect(jsonPath("$[0].username").value("member_user"));
+        }
+
+        @Test
+        @WithMockUser(username = "admin", authorities = "administrator")
+        void test_getUsersByIds_status_isBadRequest_when_ids_areEmpty() throws Exception {
+            mockMvc.perform(post("/users/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"ids\":[]}"))
+                    .andExpect(status().isBadRequest());
+        }
+
+    }
+
+    @Nested
+    @DisplayName("Username Availability Tests")
+    class UsernameAvailabilityTests {
+
+        @Test
+        void test_getUsernameAvailability_isFalse_when_username_is_taken() throws Exception {
+            createDefaultMemberUser("taken_name");
+
+            mockMvc.perform(get("/users/availability").param("username", "taken_name"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.username").value("taken_name"))
+                    .andExpect(jsonPath("$.available").value(false));
+        }
+
+        @Test
+        void test_getUsernameAvailability_isTrue_when_username_is_free() throws Exception {
+            mockMvc.perform(get("/users/availability").param("username", "free_name"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.available").value(true));
+        }
+
+    }
+
+    @Nested
+    @DisplayName("Avatar Tests")
+    class AvatarTests {
+
+        // Images are streamed with JDBC, which only sees flushed changes of the test transaction.
+        @Autowired
+        EntityManager entityManager;
+
+        private long userId;
+
+        @BeforeEach
+        void setUp() throws Exception {
+            userId = createDefaultMemberUser("avatar_boy").getId();
+        }
+
+        @Test
+        @WithMockUser(username = "avatar_boy")
+        void test_getAvatarImage_streams_normalized_image_with_cache_headers() throws Exception {
+            upload(image(300, 200, BufferedImage.TYPE_INT_RGB));
+
+            MvcResult result = mockMvc.perform(get("/users/{id}/avatar", userId))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.IMAGE_JPEG))
+                    .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("private")))
+                    .andReturn();
+
+            byte[] body = result.getResponse().getContentAsByteArray();
+            assertEquals(body.length, result.getResponse().getContentLength());
+            BufferedImage avatar = ImageIO.read(new ByteArrayInputStream(body));
+            assertEquals(200, avatar.getWidth());
+            assertEquals(200, avatar.getHeight());
+
+            String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+            assertNotNull(etag);
+
+            mockMvc.perform(get("/users/{id}/avatar", userId)
+                            .header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().bytes(new byte[0]));
+        }
+
+        @Test
+        @WithMockUser(username = "avatar_boy")
+        void test_getAvatarImage_serves_smallest_thumbnail_that_fits_size() throws Exception {
+            upload(image(300, 200, BufferedImage.TYPE_INT_RGB));
+
+            assertEquals(64, getAvatarWidth(40));
+            assertEquals(32, getAvatarWidth(32));
+            assertEquals(256, getAvatarWidth(100));
+            // Larger than every thumbnail falls back to the full size avatar.
+            assertEquals(200, getAvatarWidth(512));
+        }
+
+        @Test
+        @WithMockUser(username = "avatar_boy")
+        void test_putAvatarImage_keeps_transparent_images_as_png() throws Exception {
+            upload(image(64, 64, BufferedImage.TYPE_INT_ARGB));
+
+            mockMvc.perform(get("/users/{id}/avatar", userId).param("size", "32"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.IMAGE_PNG));
+        }
+
+        @Test
+        @WithMockUser(username = "avatar_boy")
+        void test_putAvatarFile_stores_multipart_image() throws Exception {
+            MockMultipartFile file = new MockMultipartFile("file", "avatar.png", MediaType.IMAGE_PNG_VALUE,
+                    image(64, 64, BufferedImage.TYPE_INT_RGB));
+
+            mockMvc.perform(multipart("/users/current/avatar")
+                            .file(file)
+                            .with(request -> {
+                                request.setMethod("PUT");
+                                return request;
+                            }))
+                    .andExpect(status().isNoContent());
+            entityManager.flush();
+
+            mockMvc.perform(get("/users/{id}/avatar", userId))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.IMAGE_JPEG));
+        }
+
+        @Test
+        @WithMockUser(username = "avatar_boy")
+        void test_getAvatar_returns_data_uri_of_binary_upload() throws Exception {
+            upload(image(64, 64, BufferedImage.TYPE_INT_RGB));
+
+            byte[] stored = mockMvc.perform(get("/users/{id}/avatar", userId))
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            mockMvc.perform(get("/users/current/avatar"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.pic").value("data:image/jpeg;base64," + Base64.getEncoder().encodeToString(stored)));
+        }
+
+        @Test
+        @WithMockUser(username = "avatar_boy")
+        void test_getAvatar_status_isNotModified_when_etag_matches() throws Exception {
+            upload(image(64, 64, BufferedImage.TYPE_INT_RGB));
+
+            String etag = mockMvc.perform(get("/users/current/avatar"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            assertNotNull(etag);
+
+            mockMvc.perform(get("/users/current/avatar")
+                            .header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified());
+        }
+
+        @Test
+        @WithMockUser(username = "avatar_boy")
+        void test_putAvatarImage_status_isBadRequest_when_image_isEmpty() throws Exception {
+            mockMvc.perform(put("/users/current/avatar")
+                            .contentType(MediaType.IMAGE_PNG)
+                            .content(new byte[0]))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @WithMockUser(username = "avatar_boy")
+        void test_putAvatarImage_status_isBadRequest_when_body_isNotAnImage() throws Exception {
+            mockMvc.perform(put("/users/current/avatar")
+                            .contentType(MediaType.IMAGE_PNG)
+                            .content("not an image".getBytes(StandardCharsets.UTF_8)))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @WithMockUser(username = "avatar_boy")
+        void test_putAvatarDataUri_status_isBadRequest_when_dataUri_isMalformed() throws Exception {
+            mockMvc.perform(put("/users/current/avatar")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"pic\":\"data:image/png;base64,not base64!\"}"))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @WithMockUser(username = "avatar_boy")
+        void test_putAvatarDataUri_status_isBadRequest_when_image_isNotAnImage() throws Exception {
+            String dataUri = AvatarService.encodeDataUri("not an image".getBytes(StandardCharsets.UTF_8));
+            mockMvc.perform(put("/users/current/avatar")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(Collections.singletonMap("pic", dataUri))))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @WithMockUser(username = "avatar_boy")
+        void test_getAvatarImage_status_isNotFound_when_user_has_no_avatar() throws Exception {
+            mockMvc.perform(get("/users/{id}/avatar", userId))
+                    .andExpect(status().isNotFound());
+        }
+
+        private void upload(byte[] image) throws Exception {
+            mockMvc.perform(put("/users/current/avatar")
+                            .contentType(MediaType.IMAGE_PNG)
+                            .content(image))
+                    .andExpect(status().isNoContent());
+            entityManager.flush();
+        }
+
+        private int getAvatarWidth(int size) throws Exception {
+            byte[] body = mockMvc.perform(get("/users/{id}/avatar", userId).param("size", Integer.toString(size)))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsByteArray();
+            return ImageIO.read(new ByteArrayInputStream(body)).getWidth();
+        }
+
+        private byte[] image(int width, int height, int type) throws Exception {
+            BufferedImage image = new BufferedImage(width, height, type);
+            image.setRGB(1, 1, 0xFFFF0000);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        }
+
+    }
+
+    private void createAdminUser(String username, String email) throws Exception {
+        AdminUserRegistration adminUserRegistration =
+                AdminUserRegistration.builder()
+                        .email(email)
+                        .firstName("Admin")
+                        .lastName("Boy")
+                        .username(username)
+                        .password("P@ssword123")
+                        .phone("(222) 222-2222")
+                        .build();
+        mockMvc.perform(post("/users/registration")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(adminUserRegistration)))
+                .andExpect(status().isCreated());
+    }
+
     /**
      * Create a default user with the first member in
      * the members.sql
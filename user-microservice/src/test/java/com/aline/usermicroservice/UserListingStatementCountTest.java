@@ -0,0 +1,148 @@
+package com.aline.usermicroservice;
+
+import com.aline.core.annotation.test.SpringBootIntegrationTest;
+import com.aline.core.annotation.test.SpringTestProperties;
+import com.aline.core.aws.email.EmailService;
+import com.aline.core.dto.request.AdminUserRegistration;
+import com.aline.core.dto.request.MemberUserRegistration;
+import com.aline.core.exception.notfound.MemberNotFoundException;
+import com.aline.usermicroservice.service.MemberService;
+import com.aline.usermicroservice.service.UserService;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.transaction.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doNothing;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootIntegrationTest(SpringTestProperties.DISABLE_WEB_SECURITY)
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Slf4j(topic = "User Listing Statement Count Test")
+@DisplayName("User Listing Statement Count Test")
+@Sql(scripts = "classpath:scripts/listing-members.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Transactional
+class UserListingStatementCountTest {
+
+    @MockBean
+    EmailService emailService;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        doNothing().when(emailService).sendHtmlEmail(any(), any(), any(), any());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        for (int i = 1; i <= 5; i++) {
+            userService.registerUser(MemberUserRegistration.builder()
+                    .username("member_user" + i)
+                    .password("P@ssword123")
+                    .membershipId("1000000" + i)
+                    .lastFourOfSSN("2222")
+                    .build(), null);
+        }
+        userService.registerUser(AdminUserRegistration.builder()
+                .username("admin_user")
+                .password("P@ssword123")
+                .firstName("Admin")
+                .lastName("Boy")
+                .email("admin@email.com")
+                .phone("(222) 222-2222")
+                .build(), null);
+
+        // Make sure the listing has to load everything from the database.
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    @WithMockUser(username = "admin", authorities = "administrator")
+    void test_getAllUsers_statementCount_doesNotGrow_with_memberUsers() throws Exception {
+        mockMvc.perform(get("/users")
+                        .param("page", "0")
+                        .param("size", "10")
+                        .param("sort", "id")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(6))
+                .andExpect(jsonPath("$.content[0].firstName").value("Member1"))
+                .andExpect(jsonPath("$.content[0].membershipId").value("10000001"))
+                .andExpect(jsonPath("$.content[5].firstName").value("Admin"));
+
+        long statements = statistics.getPrepareStatementCount();
+        log.info("Statements for one page of users: {}", statements);
+
+        // One for the page, one for the members and applicants, and at most one count query.
+        assertTrue(statements <= 3, String.format("Expected at most 3 statements but was %d.", statements));
+    }
+
+    @Test
+    @WithMockUser(username = "member_user1")
+    void test_getCurrentUser_statementCount_isZero_once_the_user_is_resolved() throws Exception {
+        mockMvc.perform(get("/users/current"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("member_user1"));
+
+        long firstStatements = statistics.getPrepareStatementCount();
+        log.info("Statements for the first current user request: {}", firstStatements);
+        // One for the ID, one for the user, and one for the member and applicant.
+        assertTrue(firstStatements <= 3, String.format("Expected at most 3 statements but was %d.", firstStatements));
+
+        statistics.clear();
+        mockMvc.perform(get("/users/current"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("member_user1"));
+        mockMvc.perform(get("/users/current/avatar"))
+                .andExpect(status().isNotFound());
+
+        // The avatar lookup is the only statement left.
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= 2, String.format("Expected at most 2 statements but was %d.", statements));
+    }
+
+    @Test
+    void test_getVerifiedMember_rejects_wrong_ssn_of_cached_membership_without_statements() {
+        // Registering member_user1 cached membership 10000001.
+        assertThrows(MemberNotFoundException.class, () -> memberService.getVerifiedMember("10000001", "9999"));
+
+        long statements = statistics.getPrepareStatementCount();
+        assertEquals(0, statements, String.format("Expected no statements but was %d.", statements));
+    }
+
+}
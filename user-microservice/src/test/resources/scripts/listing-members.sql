@@ -0,0 +1,29 @@
+INSERT INTO applicant (id, first_name, last_name, gender, date_of_birth, email, phone, social_security, drivers_license, address, city, state, zipcode, mailing_address, mailing_city, mailing_state, mailing_zipcode, income)
+    VALUES (101, 'Member1', 'Smith', 'MALE', '1995-06-23', 'member1@email.com', '(222) 222-2222', '222-22-2222', 'DL222221', '321 Main St.', 'Townsville', 'Maine', '12345', 'PO Box 1234', 'Townsville', 'Maine', '12345', 7500000);
+
+INSERT INTO member (id, branch_id, applicant_id, membership_id)
+    VALUES (101, 1, 101, '10000001');
+
+INSERT INTO applicant (id, first_name, last_name, gender, date_of_birth, email, phone, social_security, drivers_license, address, city, state, zipcode, mailing_address, mailing_city, mailing_state, mailing_zipcode, income)
+    VALUES (102, 'Member2', 'Smith', 'MALE', '1995-06-23', 'member2@email.com', '(222) 222-2222', '222-22-2222', 'DL222222', '321 Main St.', 'Townsville', 'Maine', '12345', 'PO Box 1234', 'Townsville', 'Maine', '12345', 7500000);
+
+INSERT INTO member (id, branch_id, applicant_id, membership_id)
+    VALUES (102, 1, 102, '10000002');
+
+INSERT INTO applicant (id, first_name, last_name, gender, date_of_birth, email, phone, social_security, drivers_license, address, city, state, zipcode, mailing_address, mailing_city, mailing_state, mailing_zipcode, income)
+    VALUES (103, 'Member3', 'Smith', 'MALE', '1995-06-23', 'member3@email.com', '(222) 222-2222', '222-22-2222', 'DL222223', '321 Main St.', 'Townsville', 'Maine', '12345', 'PO Box 1234', 'Townsville', 'Maine', '12345', 7500000);
+
+INSERT INTO member (id, branch_id, applicant_id, membership_id)
+    VALUES (103, 1, 103, '10000003');
+
+INSERT INTO applicant (id, first_name, last_name, gender, date_of_birth, email, phone, social_security, drivers_license, address, city, state, zipcode, mailing_address, mailing_city, mailing_state, mailing_zipcode, income)
+    VALUES (104, 'Member4', 'Smith', 'MALE', '1995-06-23', 'member4@email.com', '(222) 222-2222', '222-22-2222', 'DL222224', '321 Main St.', 'Townsville', 'Maine', '12345', 'PO Box 1234', 'Townsville', 'Maine', '12345', 7500000);
+
+INSERT INTO member (id, branch_id, applicant_id, membership_id)
+    VALUES (104, 1, 104, '10000004');
+
+INSERT INTO applicant (id, first_name, last_name, gender, date_of_birth, email, phone, social_security, drivers_license, address, city, state, zipcode, mailing_address, mailing_city, mailing_state, mailing_zipcode, income)
+    VALUES (105, 'Member5', 'Smith', 'MALE', '1995-06-23', 'member5@email.com', '(222) 222-2222', '222-22-2222', 'DL222225', '321 Main St.', 'Townsville', 'Maine', '12345', 'PO Box 1234', 'Townsville', 'Maine', '12345', 7500000);
+
+INSERT INTO member (id, branch_id, applicant_id, membership_id)
+    VALUES (105, 1, 105, '10000005');